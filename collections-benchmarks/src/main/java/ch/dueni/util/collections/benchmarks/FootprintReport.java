@@ -0,0 +1,176 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections.benchmarks;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import ch.dueni.util.collections.CreateOnWriteList;
+import ch.dueni.util.collections.CreateOnWriteMap;
+
+/**
+ * <code>FootprintReport</code> measures with JOL the memory an owning object spends for an empty
+ * list or map member and prints the same table as found in the javadoc of
+ * {@link CreateOnWriteList} and {@link CreateOnWriteMap} - but measured on the running JVM.
+ * <p>
+ * Sizes are the retained bytes of the member (graph of the owner without the owner's own shallow
+ * size) and the shallow bytes of the member instance itself.
+ * </p>
+ * 
+ * <pre>
+ * java -cp target/benchmarks.jar ch.dueni.util.collections.benchmarks.FootprintReport
+ * </pre>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public class FootprintReport {
+
+	/**
+	 * One measured line of the report.
+	 */
+	public static class Row {
+
+		private final String name;
+
+		private final long retained;
+
+		private final long shallow;
+
+		Row(String name, Object owner, Object member) {
+			this.name = name;
+			long ownerShallow = ClassLayout.parseInstance(owner).instanceSize();
+			this.retained = GraphLayout.parseInstance(owner).totalSize() - ownerShallow;
+			this.shallow = member == null ? 0 : ClassLayout.parseInstance(member).instanceSize();
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getRetained() {
+			return retained;
+		}
+
+		public long getShallow() {
+			return shallow;
+		}
+	}
+
+	public static List<Row> listRows() {
+		List<Row> rows = new ArrayList<Row>();
+		rows.add(listRow("ArrayList (default size)", new ArrayList<String>()));
+		rows.add(listRow("ArrayList (size 0)", new ArrayList<String>(0)));
+		rows.add(listRow("LinkedList (empty)", new LinkedList<String>()));
+		ListOwner preset = new ListOwner();
+		preset.list = preset.newCreateOnWriteList();
+		rows.add(new Row("CreateOnWriteList (empty, assigned to var)", preset, preset.list));
+		ListOwner returned = new ListOwner();
+		// getList() of an owner returns a new CreateOnWriteList which is garbage after use
+		returned.newCreateOnWriteList();
+		rows.add(new Row("CreateOnWriteList (return new from getList() method)", returned,
+				returned.list));
+		return rows;
+	}
+
+	public static List<Row> mapRows() {
+		List<Row> rows = new ArrayList<Row>();
+		rows.add(mapRow("HashMap (default size)", new HashMap<String, String>()));
+		rows.add(mapRow("HashMap (size 0)", new HashMap<String, String>(0)));
+		rows.add(mapRow("LinkedHashMap (empty)", new LinkedHashMap<String, String>()));
+		MapOwner preset = new MapOwner();
+		preset.map = preset.newCreateOnWriteMap();
+		rows.add(new Row("CreateOnWriteMap (empty, assigned to var)", preset, preset.map));
+		MapOwner returned = new MapOwner();
+		returned.newCreateOnWriteMap();
+		rows.add(new Row("CreateOnWriteMap (return new from getMap() method)", returned, returned.map));
+		return rows;
+	}
+
+	public static void print(PrintStream out, List<Row> rows) {
+		out.println("Nr Test case                                           retained   shallow");
+		out.println("== ==================================================  =========  =======");
+		int nr = 1;
+		for (Row row : rows) {
+			out.println(String.format("%2d %-50s  %9d  %7d", nr++, row.getName(), row.getRetained(),
+					row.getShallow()));
+		}
+	}
+
+	public static void main(String[] args) {
+		System.out.println(System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+		System.out.println();
+		print(System.out, listRows());
+		System.out.println();
+		print(System.out, mapRows());
+	}
+
+	private static Row listRow(String name, List<String> list) {
+		ListOwner owner = new ListOwner();
+		owner.list = list;
+		return new Row(name, owner, list);
+	}
+
+	private static Row mapRow(String name, Map<String, String> map) {
+		MapOwner owner = new MapOwner();
+		owner.map = map;
+		return new Row(name, owner, map);
+	}
+
+	/**
+	 * Session object like owner of a list member.
+	 */
+	static class ListOwner {
+
+		List<String> list;
+
+		List<String> newCreateOnWriteList() {
+			return new CreateOnWriteList<String>() {
+				@Override
+				public List<String> newList() {
+					list = new ArrayList<String>(1);
+					return list;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Session object like owner of a map member.
+	 */
+	static class MapOwner {
+
+		Map<String, String> map;
+
+		Map<String, String> newCreateOnWriteMap() {
+			return new CreateOnWriteMap<String, String>() {
+				@Override
+				public Map<String, String> newMap() {
+					map = new HashMap<String, String>(2);
+					return map;
+				}
+			};
+		}
+	}
+}
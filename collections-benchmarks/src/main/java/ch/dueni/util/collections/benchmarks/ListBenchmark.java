@@ -0,0 +1,147 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ch.dueni.util.collections.CreateOnWriteList;
+
+/**
+ * Compares read and write access on {@link CreateOnWriteList} with a plain {@link ArrayList}.
+ * <p>
+ * The <code>CreateOnWriteList</code> is measured the way it is kept on a local variable: empty it
+ * answers from its own fields, populated it delegates every call to the list created by
+ * {@link CreateOnWriteList#newList()}.
+ * </p>
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar ListBenchmark
+ * </pre>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ListBenchmark {
+
+	@Param({ "ArrayList", "CreateOnWriteList" })
+	public String type;
+
+	@Param({ "0", "16" })
+	public int size;
+
+	private List<String> list;
+
+	private String present;
+
+	private String absent;
+
+	@Setup
+	public void setup() {
+		list = newList(type);
+		for (int i = 0; i < size; i++) {
+			list.add("value-" + i);
+		}
+		present = size > 0 ? "value-" + (size / 2) : "value-0";
+		absent = "absent";
+	}
+
+	@Benchmark
+	public String get() {
+		List<String> l = list;
+		return l.isEmpty() ? null : l.get(l.size() / 2);
+	}
+
+	@Benchmark
+	public boolean containsPresent() {
+		return list.contains(present);
+	}
+
+	@Benchmark
+	public boolean containsAbsent() {
+		return list.contains(absent);
+	}
+
+	@Benchmark
+	public void iterate(Blackhole bh) {
+		for (String s : list) {
+			bh.consume(s);
+		}
+	}
+
+	@Benchmark
+	public int size() {
+		return list.size();
+	}
+
+	/**
+	 * Add to the populated list and remove again to keep its size stable between invocations.
+	 */
+	@Benchmark
+	public String addRemove() {
+		List<String> l = list;
+		l.add(absent);
+		return l.remove(l.size() - 1);
+	}
+
+	/**
+	 * First add on a new list - for the <code>CreateOnWriteList</code> this includes the call-back
+	 * to {@link CreateOnWriteList#newList()}.
+	 */
+	@Benchmark
+	public List<String> firstAdd() {
+		List<String> l = newList(type);
+		l.add(absent);
+		return l;
+	}
+
+	static List<String> newList(String type) {
+		if ("ArrayList".equals(type)) {
+			return new ArrayList<String>(1);
+		}
+		return new ArrayListCreateOnWriteList<String>();
+	}
+
+	/**
+	 * Named subclass to not let the benchmark depend on anonymous class layout.
+	 */
+	static class ArrayListCreateOnWriteList<E> extends CreateOnWriteList<E> {
+		@Override
+		public List<E> newList() {
+			return new ArrayList<E>(1);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ch.dueni.util.collections.CreateOnWriteMap;
+import ch.dueni.util.collections.InlineCreateOnWriteMap;
+
+/**
+ * Compares read and write access on {@link CreateOnWriteMap} with a plain {@link HashMap}.
+ * <p>
+ * The <code>CreateOnWriteMap</code> is measured the way it is kept on a local variable: empty it
+ * answers from its own fields, populated it delegates every call to the map created by
+ * {@link CreateOnWriteMap#newMap()}.
+ * </p>
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar MapBenchmark
+ * </pre>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MapBenchmark {
+
+	@Param({ "HashMap", "CreateOnWriteMap", "InlineCreateOnWriteMap" })
+	public String type;
+
+	@Param({ "0", "3", "16" })
+	public int size;
+
+	private Map<String, String> map;
+
+	private String present;
+
+	private String absent;
+
+	@Setup
+	public void setup() {
+		map = newMap(type);
+		for (int i = 0; i < size; i++) {
+			map.put("key-" + i, "value-" + i);
+		}
+		present = "key-" + (size / 2);
+		absent = "absent";
+	}
+
+	@Benchmark
+	public String getPresent() {
+		return map.get(present);
+	}
+
+	@Benchmark
+	public String getAbsent() {
+		return map.get(absent);
+	}
+
+	@Benchmark
+	public boolean containsKey() {
+		return map.containsKey(present);
+	}
+
+	@Benchmark
+	public void iterateEntries(Blackhole bh) {
+		for (Map.Entry<String, String> e : map.entrySet()) {
+			bh.consume(e.getValue());
+		}
+	}
+
+	@Benchmark
+	public void iterateKeys(Blackhole bh) {
+		for (String k : map.keySet()) {
+			bh.consume(k);
+		}
+	}
+
+	/**
+	 * Put and remove again to keep the size stable between invocations.
+	 */
+	@Benchmark
+	public String putRemove() {
+		Map<String, String> m = map;
+		m.put(absent, absent);
+		return m.remove(absent);
+	}
+
+	/**
+	 * First put on a new map - for the <code>CreateOnWriteMap</code> this includes the call-back to
+	 * {@link CreateOnWriteMap#newMap()}.
+	 */
+	@Benchmark
+	public Map<String, String> firstPut() {
+		Map<String, String> m = newMap(type);
+		m.put(absent, absent);
+		return m;
+	}
+
+	static Map<String, String> newMap(String type) {
+		if ("HashMap".equals(type)) {
+			return new HashMap<String, String>(2);
+		}
+		if ("InlineCreateOnWriteMap".equals(type)) {
+			return new HashMapInlineCreateOnWriteMap<String, String>();
+		}
+		return new HashMapCreateOnWriteMap<String, String>();
+	}
+
+	/**
+	 * Named subclass to not let the benchmark depend on anonymous class layout.
+	 */
+	static class HashMapCreateOnWriteMap<K, V> extends CreateOnWriteMap<K, V> {
+		@Override
+		public Map<K, V> newMap() {
+			return new HashMap<K, V>(2);
+		}
+	}
+
+	/**
+	 * Named subclass to not let the benchmark depend on anonymous class layout.
+	 */
+	static class HashMapInlineCreateOnWriteMap<K, V> extends InlineCreateOnWriteMap<K, V> {
+		@Override
+		public Map<K, V> newMap() {
+			return new HashMap<K, V>();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ch.dueni.util.collections.CreateOnWriteTrimmer;
+import ch.dueni.util.collections.benchmarks.FootprintReport.Row;
+
+/**
+ * Re-check the memory claims of the <code>CreateOnWriteList</code> and
+ * <code>CreateOnWriteMap</code> javadoc on the JVM running the build.
+ */
+public class FootprintReportTest {
+
+	@Test
+	public void testListFootprint() {
+		List<Row> rows = FootprintReport.listRows();
+		Row arrayListSize0 = rows.get(1);
+		Row linkedList = rows.get(2);
+		Row preset = rows.get(3);
+		assertTrue(preset.getRetained() > 0);
+		assertTrue(preset.getRetained() < arrayListSize0.getRetained());
+		assertTrue(preset.getRetained() < linkedList.getRetained());
+	}
+
+	@Test
+	public void testReleasedListFootprint() {
+		FootprintReport.ListOwner owner = new FootprintReport.ListOwner();
+		List<String> list = owner.newCreateOnWriteList();
+		for (int i = 0; i < 100; i++) {
+			list.add("v" + i);
+		}
+		assertTrue(new Row("grown", owner, owner.list).getRetained() > 400);
+		list.clear();
+		owner.list = CreateOnWriteTrimmer.trim(owner.list);
+		assertEquals(0, new Row("released", owner, owner.list).getRetained());
+	}
+
+	@Test
+	public void testMapFootprint() {
+		List<Row> rows = FootprintReport.mapRows();
+		Row hashMapSize0 = rows.get(1);
+		Row linkedHashMap = rows.get(2);
+		Row preset = rows.get(3);
+		assertTrue(preset.getRetained() > 0);
+		assertTrue(preset.getRetained() < hashMapSize0.getRetained());
+		assertTrue(preset.getRetained() < linkedHashMap.getRetained());
+	}
+
+	@Test
+	public void testReleasedMapFootprint() {
+		FootprintReport.MapOwner owner = new FootprintReport.MapOwner();
+		Map<String, String> map = owner.newCreateOnWriteMap();
+		for (int i = 0; i < 100; i++) {
+			map.put("k" + i, "v" + i);
+		}
+		assertTrue(new Row("grown", owner, owner.map).getRetained() > 1000);
+		map.clear();
+		owner.map = CreateOnWriteTrimmer.trim(owner.map);
+		assertEquals(0, new Row("released", owner, owner.map).getRetained());
+	}
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util.collections;
+
+/**
+ * Assigns the just created real collection to the owning object's member variable, the part of
+ * {@link CreateOnWriteList#newList()} or {@link CreateOnWriteMap#newMap()} which differs per use
+ * site. Being a single method interface, it may be implemented by a lambda like
+ * <code>l -&gt; list = l</code>.
+ * 
+ * @param <T> the type of collection assigned.
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public interface CollectionAssigner<T> {
+
+	/**
+	 * @param collection the real collection to assign to the owning object's member variable.
+	 */
+	void assign(T collection);
+
+}
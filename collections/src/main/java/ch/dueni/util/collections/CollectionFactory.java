@@ -0,0 +1,37 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util.collections;
+
+/**
+ * Creates the real collection of a create-on-write collection built by
+ * {@link CreateOnWriteList#of(CollectionFactory, CollectionAssigner)} or
+ * {@link CreateOnWriteMap#of(CollectionFactory, CollectionAssigner)}. Being a single method
+ * interface, it may be implemented by a lambda or constructor reference like
+ * <code>ArrayList::new</code>.
+ * 
+ * @param <T> the type of collection created.
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public interface CollectionFactory<T> {
+
+	/**
+	 * @return a new, empty collection.
+	 */
+	T create();
+
+}
@@ -0,0 +1,265 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * <code>ConcurrentCreateOnWriteMap</code> is the thread-safe variant of {@link CreateOnWriteMap}
+ * for most likely empty maps shared between threads, e.g. in objects on application scope or
+ * session objects accessed by parallel AJAX requests.
+ * <p>
+ * The real map is created by {@link #newMap()} on first write and published with a
+ * compare-and-set: if several threads write concurrently to the empty map, each may call
+ * {@link #newMap()} but exactly one of the created maps is installed and all writes go to it. Reads
+ * on the empty map take no lock, reads on the populated map are delegated to the
+ * {@link ConcurrentMap}.
+ * </p>
+ * <p>
+ * Unlike {@link CreateOnWriteMap} the call-back must not assign the created map to the owning
+ * object's member variable - the <code>ConcurrentCreateOnWriteMap</code> itself is meant to be
+ * kept, e.g. on a final member variable:
+ * </p>
+ * 
+ * <pre>
+ * public class MyCache {
+ * 	private final ConcurrentMap&lt;String, String&gt; map = new ConcurrentCreateOnWriteMap&lt;String, String&gt;();
+ * }
+ * </pre>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public class ConcurrentCreateOnWriteMap<K, V> implements ConcurrentMap<K, V> {
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<ConcurrentCreateOnWriteMap, ConcurrentMap> WRAPPED =
+			AtomicReferenceFieldUpdater.newUpdater(ConcurrentCreateOnWriteMap.class, ConcurrentMap.class,
+					"wrapped");
+
+	/** The real map, published once by compare-and-set. */
+	private volatile ConcurrentMap<K, V> wrapped;
+
+	/**
+	 * Return a new real map to delegate to. May be called by several threads at the same time, only
+	 * one of the returned maps is used - so it must not have side effects. Override to use another
+	 * initial size or ConcurrentMap implementation.
+	 * 
+	 * @return a new ConcurrentMap, by default a {@link ConcurrentHashMap} of initial size 2.
+	 */
+	protected ConcurrentMap<K, V> newMap() {
+		return new ConcurrentHashMap<K, V>(2);
+	}
+
+	/**
+	 * Make sure wrapped is published from {@link #newMap()} and return the wrapped map.
+	 * 
+	 * @return the real Map that won the compare-and-set.
+	 */
+	@SuppressWarnings("unchecked")
+	private ConcurrentMap<K, V> getRealMap() {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w == null) {
+			w = newMap();
+			if (!WRAPPED.compareAndSet(this, null, w)) {
+				w = wrapped;
+			}
+		}
+		return w;
+	}
+
+	@Override
+	public void clear() {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			w.clear();
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.containsKey(key);
+		}
+		return false;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.containsValue(value);
+		}
+		return false;
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.entrySet();
+		}
+		return Collections.<K, V> emptyMap().entrySet();
+	}
+
+	@Override
+	public V get(Object key) {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.get(key);
+		}
+		return null;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.isEmpty();
+		}
+		return true;
+	}
+
+	@Override
+	public Set<K> keySet() {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.keySet();
+		}
+		return Collections.<K, V> emptyMap().keySet();
+	}
+
+	/**
+	 * Make sure wrapped is published from {@link #newMap()} and delegate the passed arguments to the
+	 * wrapped Map.
+	 * 
+	 * @see Map#put(Object, Object)
+	 */
+	@Override
+	public V put(K key, V value) {
+		return getRealMap().put(key, value);
+	}
+
+	/**
+	 * Make sure wrapped is published from {@link #newMap()} and delegate the passed argument to the
+	 * wrapped Map.
+	 * 
+	 * @see Map#putAll(Map)
+	 */
+	@Override
+	public void putAll(Map<? extends K, ? extends V> m) {
+		getRealMap().putAll(m);
+	}
+
+	/**
+	 * Make sure wrapped is published from {@link #newMap()} and delegate the passed arguments to the
+	 * wrapped Map.
+	 * 
+	 * @see ConcurrentMap#putIfAbsent(Object, Object)
+	 */
+	@Override
+	public V putIfAbsent(K key, V value) {
+		return getRealMap().putIfAbsent(key, value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.remove(key);
+		}
+		return null;
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.remove(key, value);
+		}
+		return false;
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.replace(key, oldValue, newValue);
+		}
+		return false;
+	}
+
+	@Override
+	public V replace(K key, V value) {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.replace(key, value);
+		}
+		return null;
+	}
+
+	@Override
+	public int size() {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.size();
+		}
+		return 0;
+	}
+
+	@Override
+	public Collection<V> values() {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.values();
+		}
+		return Collections.<K, V> emptyMap().values();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.equals(obj);
+		}
+		return obj == this || (obj instanceof Map && ((Map<?, ?>)obj).isEmpty());
+	}
+
+	@Override
+	public int hashCode() {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.hashCode();
+		}
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		ConcurrentMap<K, V> w = wrapped;
+		if (w != null) {
+			return w.toString();
+		}
+		return "{}";
+	}
+}
@@ -16,6 +16,9 @@
 
 package ch.dueni.util.collections;
 
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -41,6 +44,14 @@ import java.util.ListIterator;
  *  4 CreatOnWriteList (empty, assigned to var)                32       16
  *  5 CreatOnWriteList (return new from getList() method)       0        0
  * </pre>
+ * <p>
+ * The table can be re-measured on the running JVM with <code>FootprintReport</code> of the
+ * collections-benchmarks module, which also holds the JMH benchmarks for the delegation cost.
+ * </p>
+ * <p>
+ * How many instances per owning class stay empty in production is reported by the opt-in
+ * {@link CreateOnWriteMetrics}.
+ * </p>
  * 
  * <h5>Example code for above test nr 4</h5>
  * 
@@ -88,6 +99,34 @@ import java.util.ListIterator;
  * }
  * </pre>
  * 
+ * <h5>Without anonymous subclass</h5>
+ * <p>
+ * Each anonymous subclass is a class of its own to load. {@link #of(CollectionAssigner)} and
+ * {@link #of(CollectionFactory, CollectionAssigner)} build all instances from one final class, the
+ * assignment to the owning object's member variable moves into a {@link CollectionAssigner}:
+ * </p>
+ * 
+ * <pre>
+ * public class MyOwner {
+ * 	private List&lt;String&gt; list;
+ * 
+ * 	public List&lt;String&gt; getList() {
+ * 		if (list == null) {
+ * 			return CreateOnWriteList.of(new CollectionAssigner&lt;List&lt;String&gt;&gt;() {
+ * 				public void assign(List&lt;String&gt; created) {
+ * 					list = created;
+ * 				}
+ * 			});
+ * 		}
+ * 		return list;
+ * 	}
+ * }
+ * </pre>
+ * <p>
+ * The anonymous <code>CollectionAssigner</code> still is a class, with Java 8 and later a lambda
+ * takes its place: <code>CreateOnWriteList.of(created -&gt; list = created)</code>.
+ * </p>
+ * 
  * <h5>Which variant to use?</h5>
  * <p>
  * It is recommended to return new CreateOnWriteList within the get-method as shown in
@@ -95,12 +134,88 @@ import java.util.ListIterator;
  * entries.
  * </p>
  * 
+ * <h5>Serialization</h5>
+ * <p>
+ * A <code>CreateOnWriteList</code> kept in a replicated session is never written as its (anonymous)
+ * subclass: once created, the wrapped List is written in its place - the same instance the owning
+ * object's member variable holds. An empty one is written as a 1 byte marker and read back as
+ * empty <code>CreateOnWriteList</code> creating an {@link java.util.ArrayList} on first write.
+ * </p>
+ * <p>
+ * <code>CreateOnWriteList</code> is not thread-safe, use {@link SnapshotCreateOnWriteList} for
+ * lists shared between threads that are mostly iterated.
+ * </p>
+ * 
  * @author Hanspeter D&uuml;nnenberger
  */
-public abstract class CreateOnWriteList<E> implements List<E> {
+public abstract class CreateOnWriteList<E> implements List<E>, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** local variable for the wrapped list to create as late as possible */
-	private List<E> wrapped;
+	private transient List<E> wrapped;
+
+	/**
+	 * Create the <code>CreateOnWriteList</code> and record it with the {@link CreateOnWriteMetrics} if
+	 * enabled.
+	 */
+	protected CreateOnWriteList() {
+		if (CreateOnWriteMetrics.enabled) {
+			CreateOnWriteMetrics.created(this, getClass());
+		}
+	}
+
+	/**
+	 * Create the <code>CreateOnWriteList</code> recording the given call-back class with the
+	 * {@link CreateOnWriteMetrics}.
+	 * 
+	 * @param callback the class implementing the call-back.
+	 */
+	CreateOnWriteList(Class<?> callback) {
+		if (CreateOnWriteMetrics.enabled) {
+			CreateOnWriteMetrics.created(this, callback);
+		}
+	}
+
+	/**
+	 * Return a <code>CreateOnWriteList</code> creating an {@link ArrayList} of initial capacity 1 on
+	 * first write and passing it to the <code>assigner</code>.
+	 * 
+	 * @param assigner assigns the real List to the owning object's member variable.
+	 * @return a new <code>CreateOnWriteList</code> without an anonymous subclass.
+	 * @throws NullPointerException if <code>assigner</code> is <code>null</code>.
+	 * @see #of(CollectionFactory, CollectionAssigner)
+	 */
+	public static <E> CreateOnWriteList<E> of(CollectionAssigner<? super List<E>> assigner) {
+		checkNotNull(assigner, "assigner");
+		return new AssigningCreateOnWriteList<E>(null, assigner);
+	}
+
+	/**
+	 * Return a <code>CreateOnWriteList</code> creating the real List by the
+	 * <code>factory</code> on first write and passing it to the <code>assigner</code> - the same as
+	 * {@link #newList()} does in an anonymous subclass. All instances share one final class, which keeps
+	 * the number of loaded classes down and the call sites monomorphic.
+	 * 
+	 * @param factory creates the real List.
+	 * @param assigner assigns the real List to the owning object's member variable.
+	 * @return a new <code>CreateOnWriteList</code> without an anonymous subclass.
+	 * @throws NullPointerException if <code>factory</code> or <code>assigner</code> is
+	 *         <code>null</code>.
+	 * @see #of(CollectionAssigner)
+	 */
+	public static <E> CreateOnWriteList<E> of(CollectionFactory<? extends List<E>> factory,
+			CollectionAssigner<? super List<E>> assigner) {
+		checkNotNull(factory, "factory");
+		checkNotNull(assigner, "assigner");
+		return new AssigningCreateOnWriteList<E>(factory, assigner);
+	}
+
+	private static void checkNotNull(Object argument, String name) {
+		if (argument == null) {
+			throw new NullPointerException(name + " must not be null");
+		}
+	}
 
 	/**
 	 * Return the just created real List after assigning it to the owning object's member variable.
@@ -131,6 +246,13 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 	 */
 	public abstract List<E> newList();
 
+	/**
+	 * @return the class implementing the call-back, giving the owning class to the metrics.
+	 */
+	Class<?> callbackClass() {
+		return getClass();
+	}
+
 	/**
 	 * Make sure wrapped is assigned from {@link #newList()} return the wrapped List.
 	 * 
@@ -139,10 +261,77 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 	private List<E> getWrapped() {
 		if (wrapped == null) {
 			wrapped = newList();
+			if (CreateOnWriteMetrics.enabled) {
+				CreateOnWriteMetrics.materialized(this, callbackClass(), wrapped);
+			}
 		}
 		return wrapped;
 	}
 
+	/**
+	 * Policy hook to release the wrapped List as soon as it gets empty by {@link #clear()} or one of
+	 * the remove methods called on this <code>CreateOnWriteList</code>. {@link #newList()} is then
+	 * called again right away, which assigns a new minimal List to the owning object's member
+	 * variable and lets the grown one be garbage collected. Removals through an iterator or sub list
+	 * do not trigger the release.
+	 * <p>
+	 * Default is <code>false</code>, override to return <code>true</code> where a list once grown big
+	 * is likely to be cleared and kept for long. See {@link CreateOnWriteTrimmer} for the owner's
+	 * member variable that references the real List directly.
+	 * </p>
+	 * 
+	 * @return <code>true</code> to release the wrapped List when empty.
+	 */
+	protected boolean isReleaseWhenEmpty() {
+		return false;
+	}
+
+	/**
+	 * Replace the wrapped List by a new one from {@link #newList()} if it is empty and
+	 * {@link #isReleaseWhenEmpty()} is set. Calling {@link #newList()} right away re-points the owning
+	 * object's member variable, which would otherwise still reference the released List while this
+	 * wrapper does not.
+	 */
+	private void releaseIfEmpty() {
+		if (wrapped.isEmpty() && isReleaseWhenEmpty()) {
+			wrapped = null;
+			getWrapped();
+		}
+	}
+
+	/**
+	 * Release the wrapped List if it is empty, otherwise trim its storage in place. Like
+	 * {@link #releaseIfEmpty()} a released List is replaced by a new one from {@link #newList()} right
+	 * away, to keep the owning object's member variable in sync with this wrapper.
+	 * 
+	 * @param minOccupancy the occupancy ratio below which storage is trimmed.
+	 * @see CreateOnWriteTrimmer#trim(List, float)
+	 */
+	void trimWrapped(float minOccupancy) {
+		if (wrapped != null) {
+			if (wrapped.isEmpty()) {
+				wrapped = null;
+				getWrapped();
+			} else {
+				CreateOnWriteTrimmer.trimInPlace(wrapped, minOccupancy);
+			}
+		}
+	}
+
+	/**
+	 * Replace this <code>CreateOnWriteList</code> in the serialization stream by the wrapped List or
+	 * the empty marker if {@link #newList()} was not called yet.
+	 * 
+	 * @return the object to serialize instead of this.
+	 * @throws ObjectStreamException never thrown.
+	 */
+	protected final Object writeReplace() throws ObjectStreamException {
+		if (wrapped != null) {
+			return wrapped;
+		}
+		return new CreateOnWriteSerialForm(CreateOnWriteSerialForm.EMPTY_LIST);
+	}
+
 	/**
 	 * Make sure wrapped is assigned from {@link #newList()} and delegate the passed argument to the
 	 * wrapped List.
@@ -191,6 +380,7 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 	public void clear() {
 		if (wrapped != null) {
 			wrapped.clear();
+			releaseIfEmpty();
 		}
 	}
 
@@ -207,15 +397,21 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 		if (wrapped != null) {
 			return wrapped.containsAll(c);
 		}
-		return false;
+		return c.isEmpty();
 	}
 
+	/**
+	 * Delegate to the wrapped list or throw like an empty {@link java.util.ArrayList}.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@link #newList()} was not called before.
+	 * @see List#get(int)
+	 */
 	@Override
 	public E get(int index) {
 		if (wrapped != null) {
 			return wrapped.get(index);
 		}
-		return null;
+		throw EmptyListIterator.outOfBounds(index);
 	}
 
 	@Override
@@ -235,12 +431,11 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Iterator<E> iterator() {
 		if (wrapped != null) {
 			return wrapped.iterator();
 		}
-		return Collections.EMPTY_LIST.iterator();
+		return EmptyListIterator.emptyListIterator();
 	}
 
 	@Override
@@ -252,43 +447,56 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public ListIterator<E> listIterator() {
 		if (wrapped != null) {
 			return wrapped.listIterator();
 		}
-		return Collections.EMPTY_LIST.listIterator();
+		return EmptyListIterator.emptyListIterator();
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public ListIterator<E> listIterator(int index) {
 		if (wrapped != null) {
 			return wrapped.listIterator(index);
 		}
-		return Collections.EMPTY_LIST.listIterator();
+		if (index != 0) {
+			throw EmptyListIterator.outOfBounds(index);
+		}
+		return EmptyListIterator.emptyListIterator();
 	}
 
 	@Override
 	public boolean remove(Object o) {
 		if (wrapped != null) {
-			return wrapped.remove(o);
+			boolean result = wrapped.remove(o);
+			releaseIfEmpty();
+			return result;
 		}
 		return false;
 	}
 
+	/**
+	 * Delegate to the wrapped list or throw like an empty {@link java.util.ArrayList}.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@link #newList()} was not called before.
+	 * @see List#remove(int)
+	 */
 	@Override
 	public E remove(int index) {
 		if (wrapped != null) {
-			return wrapped.remove(index);
+			E result = wrapped.remove(index);
+			releaseIfEmpty();
+			return result;
 		}
-		return null;
+		throw EmptyListIterator.outOfBounds(index);
 	}
 
 	@Override
 	public boolean removeAll(Collection<?> c) {
 		if (wrapped != null) {
-			return wrapped.removeAll(c);
+			boolean result = wrapped.removeAll(c);
+			releaseIfEmpty();
+			return result;
 		}
 		return false;
 	}
@@ -296,16 +504,17 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 	@Override
 	public boolean retainAll(Collection<?> c) {
 		if (wrapped != null) {
-			return wrapped.retainAll(c);
+			boolean result = wrapped.retainAll(c);
+			releaseIfEmpty();
+			return result;
 		}
 		return false;
 	}
 
 	/**
-	 * If {@link #newList()} was used before, delegate to the wrapped list.
-	 * 
-	 * @throws UnsupportedOperationException if {@link #newList()} was not called before.
+	 * Delegate to the wrapped list or throw like an empty {@link java.util.ArrayList}.
 	 * 
+	 * @throws IndexOutOfBoundsException if {@link #newList()} was not called before.
 	 * @see List#set(int, Object)
 	 */
 	@Override
@@ -313,7 +522,7 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 		if (wrapped != null) {
 			return wrapped.set(index, element);
 		}
-		throw new UnsupportedOperationException();
+		throw EmptyListIterator.outOfBounds(index);
 	}
 
 	@Override
@@ -330,6 +539,10 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 		if (wrapped != null) {
 			return wrapped.subList(fromIndex, toIndex);
 		}
+		if (fromIndex != 0 || toIndex != 0) {
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex
+					+ ", Size: 0");
+		}
 		return Collections.EMPTY_LIST;
 	}
 
@@ -338,7 +551,7 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 		if (wrapped != null) {
 			return wrapped.toArray();
 		}
-		return Collections.EMPTY_LIST.toArray();
+		return EmptyListIterator.EMPTY_ARRAY;
 	}
 
 	@Override
@@ -346,6 +559,9 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 		if (wrapped != null) {
 			return wrapped.toArray(a);
 		}
+		if (a.length > 0) {
+			a[0] = null;
+		}
 		return a;
 	}
 
@@ -354,7 +570,7 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 		if (wrapped != null) {
 			return wrapped.toString();
 		}
-		return Collections.EMPTY_LIST.toString();
+		return "[]";
 	}
 
 	@Override
@@ -362,6 +578,47 @@ public abstract class CreateOnWriteList<E> implements List<E> {
 		if (wrapped != null) {
 			return wrapped.equals(obj);
 		}
-		return super.equals(obj);
+		return obj == this || (obj instanceof List && ((List<?>)obj).isEmpty());
+	}
+
+	@Override
+	public int hashCode() {
+		if (wrapped != null) {
+			return wrapped.hashCode();
+		}
+		return 1;
 	}
+
+	/**
+	 * The single implementation behind
+	 * {@link CreateOnWriteList#of(CollectionFactory, CollectionAssigner)}.
+	 */
+	static final class AssigningCreateOnWriteList<E> extends CreateOnWriteList<E> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient CollectionFactory<? extends List<E>> factory;
+
+		private final transient CollectionAssigner<? super List<E>> assigner;
+
+		AssigningCreateOnWriteList(CollectionFactory<? extends List<E>> factory,
+				CollectionAssigner<? super List<E>> assigner) {
+			super(assigner.getClass());
+			this.factory = factory;
+			this.assigner = assigner;
+		}
+
+		@Override
+		public List<E> newList() {
+			List<E> real = factory == null ? new ArrayList<E>(1) : factory.create();
+			assigner.assign(real);
+			return real;
+		}
+
+		@Override
+		Class<?> callbackClass() {
+			return assigner.getClass();
+		}
+	}
+
 }
@@ -0,0 +1,366 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * <code>CreateOnWriteLongList</code> is the <code>long</code> specialized sibling of
+ * {@link CreateOnWriteList} for most likely empty lists of ids kept in session. The values are
+ * stored in a <code>long[]</code> that is not allocated before the first write, so an empty
+ * <code>CreateOnWriteLongList</code> returned from a get-method uses 0 bytes of the owning object
+ * and a populated one needs no Long object per element.
+ * <p>
+ * Instead of returning a real List, the call-back {@link #newList()} is called once right before the
+ * first value is stored and must assign this list to the owning object's member variable:
+ * </p>
+ * 
+ * <pre>
+ * public class MyOwner {
+ * 	private CreateOnWriteLongList selected;
+ * 
+ * 	public CreateOnWriteLongList getSelected() {
+ * 		if (selected == null) {
+ * 			return new CreateOnWriteLongList() {
+ * 				&#064;Override
+ * 				public void newList() {
+ * 					selected = this;
+ * 				}
+ * 			};
+ * 		}
+ * 		return selected;
+ * 	}
+ * }
+ * </pre>
+ * <p>
+ * Besides the {@link List} interface on boxed values the <code>...Long</code> methods give
+ * access to the primitive values without boxing.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public abstract class CreateOnWriteLongList extends AbstractList<Long> implements RandomAccess {
+
+	/** Capacity allocated on first write. */
+	private static final int INITIAL_CAPACITY = 4;
+
+	/** Shared array returned by {@link #toLongArray()} while empty. */
+	private static final long[] EMPTY = new long[0];
+
+	/** The values, null as long as nothing was written. */
+	private long[] elements;
+
+	/** Number of values in use. */
+	private int size;
+
+	/**
+	 * Called once before the first value is stored - assign this list to the owning object's member
+	 * variable.
+	 * 
+	 * @see CreateOnWriteList#newList()
+	 */
+	public abstract void newList();
+
+	/**
+	 * Make sure {@link #newList()} was called and the elements array can take
+	 * <code>minCapacity</code> values.
+	 */
+	private void ensureCapacity(int minCapacity) {
+		if (elements == null) {
+			newList();
+			elements = new long[Math.max(INITIAL_CAPACITY, minCapacity)];
+		} else if (minCapacity > elements.length) {
+			int newCapacity = elements.length + (elements.length >> 1) + 1;
+			elements = Arrays.copyOf(elements, Math.max(newCapacity, minCapacity));
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	private void checkPositionIndex(int index) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * Return the value at the passed index.
+	 * 
+	 * @param index index of the value to return.
+	 * @return the value at the passed index.
+	 */
+	public long getLong(int index) {
+		checkIndex(index);
+		return elements[index];
+	}
+
+	/**
+	 * Replace the value at the passed index.
+	 * 
+	 * @param index index of the value to replace.
+	 * @param value the value to store.
+	 * @return the value previously stored at the passed index.
+	 */
+	public long setLong(int index, long value) {
+		checkIndex(index);
+		long old = elements[index];
+		elements[index] = value;
+		return old;
+	}
+
+	/**
+	 * Append the passed value, calling {@link #newList()} on first write.
+	 * 
+	 * @param value the value to append.
+	 */
+	public void addLong(long value) {
+		ensureCapacity(size + 1);
+		elements[size++] = value;
+		modCount++;
+	}
+
+	/**
+	 * Insert the passed value at the passed index, calling {@link #newList()} on first write.
+	 * 
+	 * @param index index at which to insert the value.
+	 * @param value the value to insert.
+	 */
+	public void addLong(int index, long value) {
+		checkPositionIndex(index);
+		ensureCapacity(size + 1);
+		System.arraycopy(elements, index, elements, index + 1, size - index);
+		elements[index] = value;
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Remove the value at the passed index.
+	 * 
+	 * @param index index of the value to remove.
+	 * @return the removed value.
+	 */
+	public long removeLongAt(int index) {
+		checkIndex(index);
+		long old = elements[index];
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		size--;
+		modCount++;
+		return old;
+	}
+
+	/**
+	 * Remove the first occurrence of the passed value.
+	 * 
+	 * @param value the value to remove.
+	 * @return true if the value was found and removed.
+	 */
+	public boolean removeLong(long value) {
+		int index = indexOfLong(value);
+		if (index < 0) {
+			return false;
+		}
+		removeLongAt(index);
+		return true;
+	}
+
+	/**
+	 * Return the index of the first occurrence of the passed value or -1 if not found.
+	 * 
+	 * @param value the value to look for.
+	 * @return the index of the first occurrence of the passed value or -1 if not found.
+	 */
+	public int indexOfLong(long value) {
+		for (int i = 0; i < size; i++) {
+			if (elements[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Return the index of the last occurrence of the passed value or -1 if not found.
+	 * 
+	 * @param value the value to look for.
+	 * @return the index of the last occurrence of the passed value or -1 if not found.
+	 */
+	public int lastIndexOfLong(long value) {
+		for (int i = size - 1; i >= 0; i--) {
+			if (elements[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Return true if the passed value is contained.
+	 * 
+	 * @param value the value to look for.
+	 * @return true if the passed value is contained.
+	 */
+	public boolean containsLong(long value) {
+		return indexOfLong(value) >= 0;
+	}
+
+	/**
+	 * Return a copy of the values.
+	 * 
+	 * @return a new array containing the values in list order.
+	 */
+	public long[] toLongArray() {
+		if (size == 0) {
+			return EMPTY;
+		}
+		return Arrays.copyOf(elements, size);
+	}
+
+	/**
+	 * Return the length of the current elements array, 0 while not yet created.
+	 * 
+	 * @return the current capacity.
+	 */
+	int capacity() {
+		return elements == null ? 0 : elements.length;
+	}
+
+	/**
+	 * Shrink the capacity of the elements array to the current size.
+	 */
+	public void trimToSize() {
+		if (elements != null && elements.length > size) {
+			elements = Arrays.copyOf(elements, size);
+		}
+	}
+
+	@Override
+	public Long get(int index) {
+		return Long.valueOf(getLong(index));
+	}
+
+	@Override
+	public Long set(int index, Long element) {
+		return Long.valueOf(setLong(index, element.longValue()));
+	}
+
+	@Override
+	public boolean add(Long e) {
+		addLong(e.longValue());
+		return true;
+	}
+
+	@Override
+	public void add(int index, Long element) {
+		addLong(index, element.longValue());
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Long> c) {
+		return addAll(size, c);
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Long> c) {
+		checkPositionIndex(index);
+		// unbox into a copy first: a null element must not leave a half shifted list behind and
+		// c may be this list itself
+		Object[] values = c.toArray();
+		int count = values.length;
+		if (count == 0) {
+			return false;
+		}
+		long[] added = new long[count];
+		for (int i = 0; i < count; i++) {
+			added[i] = ((Long)values[i]).longValue();
+		}
+		ensureCapacity(size + count);
+		System.arraycopy(elements, index, elements, index + count, size - index);
+		System.arraycopy(added, 0, elements, index, count);
+		size += count;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public Long remove(int index) {
+		return Long.valueOf(removeLongAt(index));
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return o instanceof Long && removeLong(((Long)o).longValue());
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof Long && containsLong(((Long)o).longValue());
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		return o instanceof Long ? indexOfLong(((Long)o).longValue()) : -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return o instanceof Long ? lastIndexOfLong(((Long)o).longValue()) : -1;
+	}
+
+	@Override
+	public void clear() {
+		if (size > 0) {
+			size = 0;
+			modCount++;
+		}
+	}
+
+	@Override
+	public Iterator<Long> iterator() {
+		if (size == 0) {
+			return EmptyListIterator.emptyListIterator();
+		}
+		return super.iterator();
+	}
+
+	@Override
+	public Object[] toArray() {
+		if (size == 0) {
+			return EmptyListIterator.EMPTY_ARRAY;
+		}
+		return super.toArray();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+}
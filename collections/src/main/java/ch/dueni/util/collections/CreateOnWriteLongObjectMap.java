@@ -0,0 +1,379 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <code>CreateOnWriteLongObjectMap</code> is the <code>long</code> key specialized sibling of
+ * {@link CreateOnWriteMap} for most likely empty maps from ids to flags or objects kept in session.
+ * Keys are stored sorted in a <code>long[]</code> with the values in a parallel array, both not
+ * allocated before the first put, so an empty <code>CreateOnWriteLongObjectMap</code> returned from
+ * a get-method uses 0 bytes of the owning object and a populated one needs neither a Long nor an
+ * entry object per key.
+ * <p>
+ * Lookups use binary search, puts and removes of new keys shift the arrays - this is fast for the
+ * sizes found in session objects but not meant as general purpose replacement of HashMap.
+ * Iteration order is ascending key order.
+ * </p>
+ * <p>
+ * Instead of returning a real Map, the call-back {@link #newMap()} is called once right before the
+ * first entry is stored and must assign this map to the owning object's member variable:
+ * </p>
+ * 
+ * <pre>
+ * public class MyOwner {
+ * 	private CreateOnWriteLongObjectMap&lt;Boolean&gt; flags;
+ * 
+ * 	public CreateOnWriteLongObjectMap&lt;Boolean&gt; getFlags() {
+ * 		if (flags == null) {
+ * 			return new CreateOnWriteLongObjectMap&lt;Boolean&gt;() {
+ * 				&#064;Override
+ * 				public void newMap() {
+ * 					flags = this;
+ * 				}
+ * 			};
+ * 		}
+ * 		return flags;
+ * 	}
+ * }
+ * </pre>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public abstract class CreateOnWriteLongObjectMap<V> extends AbstractMap<Long, V> {
+
+	/** Capacity allocated on first put. */
+	private static final int INITIAL_CAPACITY = 4;
+
+	/** Shared array returned by {@link #keys()} while empty. */
+	private static final long[] EMPTY = new long[0];
+
+	/** The sorted keys, null as long as nothing was put. */
+	private long[] keys;
+
+	/** The values at the same index as their key. */
+	private Object[] values;
+
+	/** Number of entries in use. */
+	private int size;
+
+	/** Number of structural modifications to detect concurrent modification while iterating. */
+	private int modCount;
+
+	/**
+	 * Called once before the first entry is stored - assign this map to the owning object's member
+	 * variable.
+	 * 
+	 * @see CreateOnWriteMap#newMap()
+	 */
+	public abstract void newMap();
+
+	private int indexOf(long key) {
+		if (keys == null) {
+			return -1;
+		}
+		return Arrays.binarySearch(keys, 0, size, key);
+	}
+
+	@SuppressWarnings("unchecked")
+	private V valueAt(int index) {
+		return (V)values[index];
+	}
+
+	/**
+	 * Return the value stored for the passed key or null.
+	 * 
+	 * @param key the key to look up.
+	 * @return the value stored for the passed key or null.
+	 */
+	public V get(long key) {
+		int index = indexOf(key);
+		return index < 0 ? null : valueAt(index);
+	}
+
+	/**
+	 * Return true if a value is stored for the passed key.
+	 * 
+	 * @param key the key to look up.
+	 * @return true if a value is stored for the passed key.
+	 */
+	public boolean containsKey(long key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * Store the value for the passed key, calling {@link #newMap()} on first write.
+	 * 
+	 * @param key the key to store the value for.
+	 * @param value the value to store.
+	 * @return the value previously stored for the key or null.
+	 */
+	public V put(long key, V value) {
+		int index = indexOf(key);
+		if (index >= 0) {
+			V old = valueAt(index);
+			values[index] = value;
+			return old;
+		}
+		int insert = keys == null ? 0 : -(index + 1);
+		if (keys == null) {
+			newMap();
+			keys = new long[INITIAL_CAPACITY];
+			values = new Object[INITIAL_CAPACITY];
+		} else if (size == keys.length) {
+			int newCapacity = size + (size >> 1) + 1;
+			keys = Arrays.copyOf(keys, newCapacity);
+			values = Arrays.copyOf(values, newCapacity);
+		}
+		System.arraycopy(keys, insert, keys, insert + 1, size - insert);
+		System.arraycopy(values, insert, values, insert + 1, size - insert);
+		keys[insert] = key;
+		values[insert] = value;
+		size++;
+		modCount++;
+		return null;
+	}
+
+	/**
+	 * Remove the entry for the passed key.
+	 * 
+	 * @param key the key of the entry to remove.
+	 * @return the value stored for the key or null.
+	 */
+	public V remove(long key) {
+		int index = indexOf(key);
+		return index < 0 ? null : removeAt(index);
+	}
+
+	private V removeAt(int index) {
+		V old = valueAt(index);
+		System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		values[size] = null;
+		modCount++;
+		return old;
+	}
+
+	/**
+	 * Return a copy of the keys in ascending order.
+	 * 
+	 * @return a new array containing the keys in ascending order.
+	 */
+	public long[] keys() {
+		if (size == 0) {
+			return EMPTY;
+		}
+		return Arrays.copyOf(keys, size);
+	}
+
+	/**
+	 * Return the length of the current keys array, 0 while not yet created.
+	 * 
+	 * @return the current capacity.
+	 */
+	int capacity() {
+		return keys == null ? 0 : keys.length;
+	}
+
+	/**
+	 * Shrink the capacity of the key and value arrays to the current size.
+	 */
+	public void trimToSize() {
+		if (keys != null && keys.length > size) {
+			keys = Arrays.copyOf(keys, size);
+			values = Arrays.copyOf(values, size);
+		}
+	}
+
+	@Override
+	public V get(Object key) {
+		return key instanceof Long ? get(((Long)key).longValue()) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof Long && containsKey(((Long)key).longValue());
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		for (int i = 0; i < size; i++) {
+			if (value == null ? values[i] == null : value.equals(values[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public V put(Long key, V value) {
+		return put(key.longValue(), value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		return key instanceof Long ? remove(((Long)key).longValue()) : null;
+	}
+
+	@Override
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(values, 0, size, null);
+			size = 0;
+			modCount++;
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public Set<Map.Entry<Long, V>> entrySet() {
+		if (size == 0) {
+			return Collections.emptySet();
+		}
+		return new AbstractSet<Map.Entry<Long, V>>() {
+			@Override
+			public Iterator<Map.Entry<Long, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public void clear() {
+				CreateOnWriteLongObjectMap.this.clear();
+			}
+		};
+	}
+
+	/**
+	 * Iterator over the entries in ascending key order.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<Long, V>> {
+
+		private int next;
+
+		private int last = -1;
+
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		public Map.Entry<Long, V> next() {
+			checkForComodification();
+			if (next >= size) {
+				throw new NoSuchElementException();
+			}
+			last = next++;
+			return new Entry(last);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			removeAt(last);
+			next = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+
+		private void checkForComodification() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	/**
+	 * Entry view on the key and value at an index.
+	 */
+	private class Entry implements Map.Entry<Long, V> {
+
+		private final int index;
+
+		Entry(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public Long getKey() {
+			return Long.valueOf(keys[index]);
+		}
+
+		@Override
+		public V getValue() {
+			return valueAt(index);
+		}
+
+		@Override
+		public V setValue(V value) {
+			V old = valueAt(index);
+			values[index] = value;
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>)obj;
+			V value = getValue();
+			return getKey().equals(e.getKey())
+					&& (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			V value = getValue();
+			return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return keys[index] + "=" + getValue();
+		}
+	}
+}
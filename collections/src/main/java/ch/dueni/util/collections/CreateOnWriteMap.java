@@ -16,8 +16,11 @@
 
 package ch.dueni.util.collections;
 
+import java.io.ObjectStreamException;
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,6 +43,14 @@ import java.util.Set;
  *  4 CreatOnWriteMap (empty, assigned to variable)            32       16
  *  5 CreatOnWriteMap (return new from getList() method)        0        0
  * </pre>
+ * <p>
+ * The table can be re-measured on the running JVM with <code>FootprintReport</code> of the
+ * collections-benchmarks module, which also holds the JMH benchmarks for the delegation cost.
+ * </p>
+ * <p>
+ * How many instances per owning class stay empty in production is reported by the opt-in
+ * {@link CreateOnWriteMetrics}.
+ * </p>
  * 
  * <h5>Example code for above test nr 4</h5>
  * 
@@ -87,6 +98,34 @@ import java.util.Set;
  * }
  * </pre>
  * 
+ * <h5>Without anonymous subclass</h5>
+ * <p>
+ * Each anonymous subclass is a class of its own to load. {@link #of(CollectionAssigner)} and
+ * {@link #of(CollectionFactory, CollectionAssigner)} build all instances from one final class, the
+ * assignment to the owning object's member variable moves into a {@link CollectionAssigner}:
+ * </p>
+ * 
+ * <pre>
+ * public class MyOwner {
+ * 	private Map&lt;String, String&gt; map;
+ * 
+ * 	public Map&lt;String, String&gt; getMap() {
+ * 		if (map == null) {
+ * 			return CreateOnWriteMap.of(new CollectionAssigner&lt;Map&lt;String, String&gt;&gt;() {
+ * 				public void assign(Map&lt;String, String&gt; created) {
+ * 					map = created;
+ * 				}
+ * 			});
+ * 		}
+ * 		return map;
+ * 	}
+ * }
+ * </pre>
+ * <p>
+ * The anonymous <code>CollectionAssigner</code> still is a class, with Java 8 and later a lambda
+ * takes its place: <code>CreateOnWriteMap.of(created -&gt; map = created)</code>.
+ * </p>
+ * 
  * <h5>Which variant to use?</h5>
  * <p>
  * It is recommended to return new CreateOnWriteMap within the get-method as shown in
@@ -94,15 +133,91 @@ import java.util.Set;
  * entries.
  * </p>
  * 
+ * <h5>Serialization</h5>
+ * <p>
+ * A <code>CreateOnWriteMap</code> kept in a replicated session is never written as its (anonymous)
+ * subclass: once created, the wrapped Map is written in its place - the same instance the owning
+ * object's member variable holds. An empty one is written as a 1 byte marker and read back as
+ * empty <code>CreateOnWriteMap</code> creating a {@link java.util.HashMap} on first write.
+ * </p>
+ * <p>
+ * <code>CreateOnWriteMap</code> is not thread-safe, use {@link ConcurrentCreateOnWriteMap} for maps
+ * shared between threads.
+ * </p>
+ * 
  * @author Hanspeter D&uuml;nnenberger
  */
-public abstract class CreateOnWriteMap<K, V> implements Map<K, V> {
+public abstract class CreateOnWriteMap<K, V> implements Map<K, V>, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * To keep the just created map as delegate in case this CreateOnWriteMap is kept on local
 	 * variable.
 	 */
-	private Map<K, V> wrapped;
+	private transient Map<K, V> wrapped;
+
+	/**
+	 * Create the <code>CreateOnWriteMap</code> and record it with the {@link CreateOnWriteMetrics} if
+	 * enabled.
+	 */
+	protected CreateOnWriteMap() {
+		if (CreateOnWriteMetrics.enabled) {
+			CreateOnWriteMetrics.created(this, getClass());
+		}
+	}
+
+	/**
+	 * Create the <code>CreateOnWriteMap</code> recording the given call-back class with the
+	 * {@link CreateOnWriteMetrics}.
+	 * 
+	 * @param callback the class implementing the call-back.
+	 */
+	CreateOnWriteMap(Class<?> callback) {
+		if (CreateOnWriteMetrics.enabled) {
+			CreateOnWriteMetrics.created(this, callback);
+		}
+	}
+
+	/**
+	 * Return a <code>CreateOnWriteMap</code> creating a {@link HashMap} of initial capacity 2 on
+	 * first write and passing it to the <code>assigner</code>.
+	 * 
+	 * @param assigner assigns the real Map to the owning object's member variable.
+	 * @return a new <code>CreateOnWriteMap</code> without an anonymous subclass.
+	 * @throws NullPointerException if <code>assigner</code> is <code>null</code>.
+	 * @see #of(CollectionFactory, CollectionAssigner)
+	 */
+	public static <K, V> CreateOnWriteMap<K, V> of(CollectionAssigner<? super Map<K, V>> assigner) {
+		checkNotNull(assigner, "assigner");
+		return new AssigningCreateOnWriteMap<K, V>(null, assigner);
+	}
+
+	/**
+	 * Return a <code>CreateOnWriteMap</code> creating the real Map by the
+	 * <code>factory</code> on first write and passing it to the <code>assigner</code> - the same as
+	 * {@link #newMap()} does in an anonymous subclass. All instances share one final class, which keeps
+	 * the number of loaded classes down and the call sites monomorphic.
+	 * 
+	 * @param factory creates the real Map.
+	 * @param assigner assigns the real Map to the owning object's member variable.
+	 * @return a new <code>CreateOnWriteMap</code> without an anonymous subclass.
+	 * @throws NullPointerException if <code>factory</code> or <code>assigner</code> is
+	 *         <code>null</code>.
+	 * @see #of(CollectionAssigner)
+	 */
+	public static <K, V> CreateOnWriteMap<K, V> of(CollectionFactory<? extends Map<K, V>> factory,
+			CollectionAssigner<? super Map<K, V>> assigner) {
+		checkNotNull(factory, "factory");
+		checkNotNull(assigner, "assigner");
+		return new AssigningCreateOnWriteMap<K, V>(factory, assigner);
+	}
+
+	private static void checkNotNull(Object argument, String name) {
+		if (argument == null) {
+			throw new NullPointerException(name + " must not be null");
+		}
+	}
 
 	/**
 	 * Return the just created real Map after assigning it to the owning object's member variable.
@@ -133,6 +248,13 @@ public abstract class CreateOnWriteMap<K, V> implements Map<K, V> {
 	 */
 	public abstract Map<K, V> newMap();
 
+	/**
+	 * @return the class implementing the call-back, giving the owning class to the metrics.
+	 */
+	Class<?> callbackClass() {
+		return getClass();
+	}
+
 	/**
 	 * Make sure wrapped is assigned from {@link #newMap()} return the wrapped Map.
 	 * 
@@ -141,14 +263,82 @@ public abstract class CreateOnWriteMap<K, V> implements Map<K, V> {
 	private Map<K, V> getRealMap() {
 		if (wrapped == null) {
 			wrapped = newMap();
+			if (CreateOnWriteMetrics.enabled) {
+				CreateOnWriteMetrics.materialized(this, callbackClass(), wrapped);
+			}
 		}
 		return wrapped;
 	}
 
+	/**
+	 * Policy hook to release the wrapped Map as soon as it gets empty by {@link #clear()} or
+	 * {@link #remove(Object)} called on this <code>CreateOnWriteMap</code>. {@link #newMap()} is then
+	 * called again right away, which assigns a new minimal Map to the owning object's member variable
+	 * and lets the grown one be garbage collected. Removals through the key, value or entry views do
+	 * not trigger the release.
+	 * <p>
+	 * Default is <code>false</code>, override to return <code>true</code> where a map once grown big
+	 * is likely to be cleared and kept for long. See {@link CreateOnWriteTrimmer} for the owner's
+	 * member variable that references the real Map directly.
+	 * </p>
+	 * 
+	 * @return <code>true</code> to release the wrapped Map when empty.
+	 */
+	protected boolean isReleaseWhenEmpty() {
+		return false;
+	}
+
+	/**
+	 * Replace the wrapped Map by a new one from {@link #newMap()} if it is empty and
+	 * {@link #isReleaseWhenEmpty()} is set. Calling {@link #newMap()} right away re-points the owning
+	 * object's member variable, which would otherwise still reference the released Map while this
+	 * wrapper does not.
+	 */
+	private void releaseIfEmpty() {
+		if (wrapped.isEmpty() && isReleaseWhenEmpty()) {
+			wrapped = null;
+			getRealMap();
+		}
+	}
+
+	/**
+	 * Release the wrapped Map if it is empty, otherwise trim its storage in place. Like
+	 * {@link #releaseIfEmpty()} a released Map is replaced by a new one from {@link #newMap()} right
+	 * away, to keep the owning object's member variable in sync with this wrapper.
+	 * 
+	 * @param minOccupancy the occupancy ratio below which storage is trimmed.
+	 * @see CreateOnWriteTrimmer#trim(Map, float)
+	 */
+	void trimWrapped(float minOccupancy) {
+		if (wrapped != null) {
+			if (wrapped.isEmpty()) {
+				wrapped = null;
+				getRealMap();
+			} else {
+				CreateOnWriteTrimmer.trimInPlace(wrapped, minOccupancy);
+			}
+		}
+	}
+
+	/**
+	 * Replace this <code>CreateOnWriteMap</code> in the serialization stream by the wrapped Map or
+	 * the empty marker if {@link #newMap()} was not called yet.
+	 * 
+	 * @return the object to serialize instead of this.
+	 * @throws ObjectStreamException never thrown.
+	 */
+	protected final Object writeReplace() throws ObjectStreamException {
+		if (wrapped != null) {
+			return wrapped;
+		}
+		return new CreateOnWriteSerialForm(CreateOnWriteSerialForm.EMPTY_MAP);
+	}
+
 	@Override
 	public void clear() {
 		if (wrapped != null) {
 			wrapped.clear();
+			releaseIfEmpty();
 		}
 	}
 
@@ -227,7 +417,9 @@ public abstract class CreateOnWriteMap<K, V> implements Map<K, V> {
 	@Override
 	public V remove(Object key) {
 		if (wrapped != null) {
-			return wrapped.remove(key);
+			V result = wrapped.remove(key);
+			releaseIfEmpty();
+			return result;
 		}
 		return null;
 	}
@@ -254,6 +446,55 @@ public abstract class CreateOnWriteMap<K, V> implements Map<K, V> {
 		if (wrapped != null) {
 			return wrapped.equals(obj);
 		}
-		return super.equals(obj);
+		return obj == this || (obj instanceof Map && ((Map<?, ?>)obj).isEmpty());
+	}
+
+	@Override
+	public int hashCode() {
+		if (wrapped != null) {
+			return wrapped.hashCode();
+		}
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		if (wrapped != null) {
+			return wrapped.toString();
+		}
+		return "{}";
+	}
+
+	/**
+	 * The single implementation behind
+	 * {@link CreateOnWriteMap#of(CollectionFactory, CollectionAssigner)}.
+	 */
+	static final class AssigningCreateOnWriteMap<K, V> extends CreateOnWriteMap<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient CollectionFactory<? extends Map<K, V>> factory;
+
+		private final transient CollectionAssigner<? super Map<K, V>> assigner;
+
+		AssigningCreateOnWriteMap(CollectionFactory<? extends Map<K, V>> factory,
+				CollectionAssigner<? super Map<K, V>> assigner) {
+			super(assigner.getClass());
+			this.factory = factory;
+			this.assigner = assigner;
+		}
+
+		@Override
+		public Map<K, V> newMap() {
+			Map<K, V> real = factory == null ? new HashMap<K, V>(2) : factory.create();
+			assigner.assign(real);
+			return real;
+		}
+
+		@Override
+		Class<?> callbackClass() {
+			return assigner.getClass();
+		}
 	}
+
 }
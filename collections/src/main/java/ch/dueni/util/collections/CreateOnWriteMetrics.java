@@ -0,0 +1,356 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util.collections;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <code>CreateOnWriteMetrics</code> records per owning class how many {@link CreateOnWriteList}
+ * and {@link CreateOnWriteMap} instances were created, how many of them ever called
+ * {@link CreateOnWriteList#newList()} or {@link CreateOnWriteMap#newMap()}, the time from creation to
+ * that first write and an estimate of the memory held by the still reachable real collections. The
+ * owners with many materializations and big delegates are the first candidates for a redesign.
+ * <p>
+ * Recording is off by default and then costs one static field read per creation and
+ * materialization. Start the JVM with <code>-Dch.dueni.util.collections.metrics=true</code> or call
+ * {@link #enable()} to switch it on, which registers the MXBean under {@link #OBJECT_NAME} with the
+ * platform MBeanServer.
+ * </p>
+ * <p>
+ * The creation time is kept in a weak identity table instead of a field of the collection, so the
+ * footprint of the create-on-write collections stays the same with recording switched on. The
+ * delegate size estimate assumes a 64 bit JVM with compressed references and excludes the
+ * elements.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public final class CreateOnWriteMetrics implements CreateOnWriteMetricsMXBean {
+
+	/** system property to enable recording at startup */
+	public static final String ENABLED_PROPERTY = "ch.dueni.util.collections.metrics";
+
+	/** name the MXBean is registered with */
+	public static final String OBJECT_NAME = "ch.dueni.util.collections:type=CreateOnWriteMetrics";
+
+	/** estimated bytes of an empty list including its array header */
+	private static final int LIST_BYTES = 40;
+
+	/** estimated bytes per list element reference */
+	private static final int LIST_ELEMENT_BYTES = 4;
+
+	/** estimated bytes of an empty hash map including its table header */
+	private static final int MAP_BYTES = 64;
+
+	/** estimated bytes per map entry: the node plus its table slot at 0.75 load factor */
+	private static final int MAP_ENTRY_BYTES = 38;
+
+	/** checked by the collections before calling into this class */
+	static volatile boolean enabled;
+
+	private static final CreateOnWriteMetrics INSTANCE = new CreateOnWriteMetrics();
+
+	private final ConcurrentMap<String, OwnerCounters> owners = new ConcurrentHashMap<String, OwnerCounters>();
+
+	private final ConcurrentMap<IdentityKey, Long> creationTimes = new ConcurrentHashMap<IdentityKey, Long>();
+
+	private final ReferenceQueue<Object> collected = new ReferenceQueue<Object>();
+
+	static {
+		if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+			enable();
+		}
+	}
+
+	private CreateOnWriteMetrics() {
+	}
+
+	/**
+	 * @return the single instance also registered as MXBean.
+	 */
+	public static CreateOnWriteMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Switch recording on and register the MXBean if not done already.
+	 */
+	public static void enable() {
+		enabled = true;
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(INSTANCE, name);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+		}
+	}
+
+	/**
+	 * Switch recording off, the MXBean stays registered to read the collected statistics.
+	 */
+	public static void disable() {
+		enabled = false;
+	}
+
+	/**
+	 * Record the creation of a create-on-write collection.
+	 * 
+	 * @param collection the just created collection.
+	 * @param callback the class implementing the call-back, giving the owning class.
+	 */
+	static void created(Object collection, Class<?> callback) {
+		INSTANCE.countersFor(callback).created.incrementAndGet();
+		INSTANCE.expungeCollected();
+		INSTANCE.creationTimes.put(new IdentityKey(collection, INSTANCE.collected),
+				Long.valueOf(System.nanoTime()));
+	}
+
+	/**
+	 * Record the first write of a create-on-write collection.
+	 * 
+	 * @param collection the collection which just called its call-back.
+	 * @param callback the class implementing the call-back, giving the owning class.
+	 * @param delegate the real collection returned from the call-back.
+	 */
+	static void materialized(Object collection, Class<?> callback, Object delegate) {
+		OwnerCounters counters = INSTANCE.countersFor(callback);
+		counters.materialized.incrementAndGet();
+		Long createdAt = INSTANCE.creationTimes.remove(new IdentityKey(collection, null));
+		if (createdAt != null) {
+			counters.firstWriteNanos.addAndGet(System.nanoTime() - createdAt.longValue());
+			counters.timedWrites.incrementAndGet();
+		}
+		if (delegate != null) {
+			counters.addDelegate(delegate);
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		CreateOnWriteMetrics.enabled = enabled;
+	}
+
+	@Override
+	public long getCreated() {
+		long created = 0;
+		for (OwnerCounters counters : owners.values()) {
+			created += counters.created.get();
+		}
+		return created;
+	}
+
+	@Override
+	public long getMaterialized() {
+		long materialized = 0;
+		for (OwnerCounters counters : owners.values()) {
+			materialized += counters.materialized.get();
+		}
+		return materialized;
+	}
+
+	@Override
+	public long getEstimatedDelegateBytes() {
+		long bytes = 0;
+		for (OwnerStatistics statistics : getOwners()) {
+			bytes += statistics.getEstimatedDelegateBytes();
+		}
+		return bytes;
+	}
+
+	@Override
+	public List<OwnerStatistics> getOwners() {
+		List<OwnerStatistics> result = new ArrayList<OwnerStatistics>(owners.size());
+		for (Map.Entry<String, OwnerCounters> entry : owners.entrySet()) {
+			result.add(entry.getValue().toStatistics(entry.getKey()));
+		}
+		Collections.sort(result, new Comparator<OwnerStatistics>() {
+			@Override
+			public int compare(OwnerStatistics o1, OwnerStatistics o2) {
+				return o1.getMaterialized() < o2.getMaterialized() ? 1
+						: o1.getMaterialized() == o2.getMaterialized() ? 0 : -1;
+			}
+		});
+		return result;
+	}
+
+	@Override
+	public void reset() {
+		owners.clear();
+		creationTimes.clear();
+	}
+
+	/**
+	 * @return the delegate references tracked for the owner of the call-back, including not yet
+	 *         expunged ones.
+	 */
+	Set<Reference<Object>> trackedDelegates(Class<?> callback) {
+		return countersFor(callback).delegates;
+	}
+
+	/**
+	 * Return the counters of the owning class of the call-back, which is the class enclosing an
+	 * anonymous, local or inner call-back class or the class declaring a lambda.
+	 */
+	private OwnerCounters countersFor(Class<?> callback) {
+		Class<?> owner = callback;
+		if (owner.getEnclosingClass() != null) {
+			owner = owner.getEnclosingClass();
+		}
+		String name = owner.getName();
+		int lambda = name.indexOf("$$Lambda");
+		if (lambda > 0) {
+			name = name.substring(0, lambda);
+		}
+		OwnerCounters counters = owners.get(name);
+		if (counters == null) {
+			counters = new OwnerCounters();
+			OwnerCounters existing = owners.putIfAbsent(name, counters);
+			if (existing != null) {
+				counters = existing;
+			}
+		}
+		return counters;
+	}
+
+	/**
+	 * Remove the creation times of collections garbage collected before their first write.
+	 */
+	private void expungeCollected() {
+		Reference<?> ref;
+		while ((ref = collected.poll()) != null) {
+			creationTimes.remove(ref);
+		}
+	}
+
+	/**
+	 * Estimate the bytes held by a real collection, excluding its elements.
+	 */
+	static long estimateBytes(Object delegate) {
+		if (delegate instanceof Collection) {
+			return LIST_BYTES + (long)LIST_ELEMENT_BYTES * ((Collection<?>)delegate).size();
+		}
+		if (delegate instanceof Map) {
+			return MAP_BYTES + (long)MAP_ENTRY_BYTES * ((Map<?, ?>)delegate).size();
+		}
+		return 0;
+	}
+
+	/**
+	 * Counters of one owning class.
+	 */
+	private static class OwnerCounters {
+
+		final AtomicLong created = new AtomicLong();
+
+		final AtomicLong materialized = new AtomicLong();
+
+		final AtomicLong firstWriteNanos = new AtomicLong();
+
+		final AtomicLong timedWrites = new AtomicLong();
+
+		final Set<Reference<Object>> delegates = Collections
+				.newSetFromMap(new ConcurrentHashMap<Reference<Object>, Boolean>());
+
+		private final ReferenceQueue<Object> collectedDelegates = new ReferenceQueue<Object>();
+
+		/**
+		 * Track a delegate weakly and drop the references of collected ones, so the set stays bounded
+		 * by the reachable delegates even if the statistics are never read.
+		 */
+		void addDelegate(Object delegate) {
+			Reference<?> ref;
+			while ((ref = collectedDelegates.poll()) != null) {
+				delegates.remove(ref);
+			}
+			delegates.add(new WeakReference<Object>(delegate, collectedDelegates));
+		}
+
+		OwnerStatistics toStatistics(String ownerClass) {
+			int live = 0;
+			long bytes = 0;
+			for (Reference<Object> ref : delegates) {
+				Object delegate = ref.get();
+				if (delegate != null) {
+					live++;
+					bytes += estimateBytes(delegate);
+				}
+			}
+			long timed = timedWrites.get();
+			double average = timed == 0 ? 0 : firstWriteNanos.get() / 1000000d / timed;
+			return new OwnerStatistics(ownerClass, created.get(), materialized.get(), average, live,
+					bytes);
+		}
+	}
+
+	/**
+	 * Weak key comparing its referent by identity, as the collections compare equal to any other
+	 * empty collection.
+	 */
+	private static class IdentityKey extends WeakReference<Object> {
+
+		private final int hash;
+
+		IdentityKey(Object referent, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+			hash = System.identityHashCode(referent);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof IdentityKey)) {
+				return false;
+			}
+			Object referent = get();
+			return referent != null && referent == ((IdentityKey)obj).get();
+		}
+	}
+
+}
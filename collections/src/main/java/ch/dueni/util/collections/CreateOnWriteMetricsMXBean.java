@@ -0,0 +1,66 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util.collections;
+
+import java.util.List;
+
+/**
+ * JMX management interface of {@link CreateOnWriteMetrics}.
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public interface CreateOnWriteMetricsMXBean {
+
+	/**
+	 * @return <code>true</code> if creations and materializations are recorded.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Switch recording on or off, the collected statistics are kept.
+	 * 
+	 * @param enabled <code>true</code> to record.
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * @return number of create-on-write collections created while enabled.
+	 */
+	long getCreated();
+
+	/**
+	 * @return number of create-on-write collections that called their call-back while enabled.
+	 */
+	long getMaterialized();
+
+	/**
+	 * @return estimated bytes held by the still reachable materialized delegates.
+	 */
+	long getEstimatedDelegateBytes();
+
+	/**
+	 * @return the statistics per owning class, most materializations first.
+	 */
+	List<OwnerStatistics> getOwners();
+
+	/**
+	 * Forget all statistics collected so far.
+	 */
+	void reset();
+
+}
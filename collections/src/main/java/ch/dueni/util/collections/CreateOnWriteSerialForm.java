@@ -0,0 +1,165 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>CreateOnWriteSerialForm</code> is the serialized form of not yet created
+ * {@link CreateOnWriteList}, {@link CreateOnWriteMap} and {@link InlineCreateOnWriteMap}
+ * instances. It is written instead of the (mostly anonymous) subclass, so neither the subclass nor
+ * its owning object end up in the stream: an empty list or map is a 1 byte marker, an inline map
+ * adds its threshold, size and the entries.
+ * <p>
+ * On read the serial form resolves to a create-on-write instance no longer bound to an owning
+ * object: it still allocates nothing until the first write and then keeps the created
+ * {@link ArrayList} or {@link HashMap} as delegate.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+final class CreateOnWriteSerialForm implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	static final byte EMPTY_LIST = 1;
+
+	static final byte EMPTY_MAP = 2;
+
+	static final byte INLINE_MAP = 3;
+
+	private byte type;
+
+	private int inlineThreshold;
+
+	private Object[] inline;
+
+	/**
+	 * Public no-arg constructor required by {@link Externalizable}.
+	 */
+	public CreateOnWriteSerialForm() {
+	}
+
+	CreateOnWriteSerialForm(byte type) {
+		this.type = type;
+	}
+
+	CreateOnWriteSerialForm(int inlineThreshold, Object[] inline) {
+		this.type = INLINE_MAP;
+		this.inlineThreshold = inlineThreshold;
+		this.inline = inline;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeByte(type);
+		if (type == INLINE_MAP) {
+			out.writeInt(inlineThreshold);
+			int length = inline == null ? 0 : inline.length;
+			out.writeInt(length >> 1);
+			for (int i = 0; i < length; i++) {
+				out.writeObject(inline[i]);
+			}
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		type = in.readByte();
+		if (type == INLINE_MAP) {
+			inlineThreshold = in.readInt();
+			int size = in.readInt();
+			if (size < 0 || size > inlineThreshold) {
+				throw new InvalidObjectException("invalid inline size: " + size);
+			}
+			inline = new Object[size << 1];
+			for (int i = 0; i < inline.length; i++) {
+				inline[i] = in.readObject();
+			}
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Object readResolve() throws ObjectStreamException {
+		switch (type) {
+		case EMPTY_LIST:
+			return new DetachedList();
+		case EMPTY_MAP:
+			return new DetachedMap();
+		case INLINE_MAP:
+			Map map = new DetachedInlineMap(inlineThreshold);
+			for (int i = 0; i < inline.length; i += 2) {
+				map.put(inline[i], inline[i + 1]);
+			}
+			return map;
+		default:
+			throw new InvalidObjectException("unknown type: " + type);
+		}
+	}
+
+	/**
+	 * Deserialized {@link CreateOnWriteList} keeping the created list as delegate.
+	 */
+	static final class DetachedList<E> extends CreateOnWriteList<E> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public List<E> newList() {
+			return new ArrayList<E>(1);
+		}
+	}
+
+	/**
+	 * Deserialized {@link CreateOnWriteMap} keeping the created map as delegate.
+	 */
+	static final class DetachedMap<K, V> extends CreateOnWriteMap<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Map<K, V> newMap() {
+			return new HashMap<K, V>(2);
+		}
+	}
+
+	/**
+	 * Deserialized {@link InlineCreateOnWriteMap} keeping the created map as delegate.
+	 */
+	static final class DetachedInlineMap<K, V> extends InlineCreateOnWriteMap<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		DetachedInlineMap(int inlineThreshold) {
+			super(inlineThreshold);
+		}
+
+		@Override
+		public Map<K, V> newMap() {
+			return new HashMap<K, V>();
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util.collections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>CreateOnWriteTrimmer</code> brings collections of long living owners back to their smallest
+ * form: an empty collection is released so the owner's getter hands out a new
+ * {@link CreateOnWriteList} or {@link CreateOnWriteMap} again, a collection which once grew big and
+ * shrunk since is trimmed to its current size.
+ * <p>
+ * Once {@link CreateOnWriteList#newList()} has been called, the owning object's member variable
+ * references the real collection directly, so the trim has to be triggered by the owner - the
+ * natural place is a session passivation call-back, where no request is using the collection:
+ * </p>
+ * 
+ * <pre>
+ * public class MyOwner implements HttpSessionActivationListener, Serializable {
+ * 	private List&lt;String&gt; list;
+ * 
+ * 	public void sessionWillPassivate(HttpSessionEvent se) {
+ * 		list = CreateOnWriteTrimmer.trim(list);
+ * 	}
+ * 
+ * 	public void sessionDidActivate(HttpSessionEvent se) {
+ * 	}
+ * }
+ * </pre>
+ * <p>
+ * Returning <code>null</code> for an empty collection fits the owner returning a new
+ * <code>CreateOnWriteList</code> from its getter (test nr 5). An owner keeping the
+ * <code>CreateOnWriteList</code> in its member variable (test nr 4) gets it back unchanged, only the
+ * wrapped List is trimmed or, if empty, replaced by a new minimal one from the call-back.
+ * </p>
+ * <p>
+ * The occupancy ratio is only applied where the capacity is known: the primitive create-on-write
+ * collections. {@link ArrayList#trimToSize()} is always called as it does not copy an exactly sized
+ * list. {@link HashMap} does not expose its table size, a non empty <code>HashMap</code> is
+ * therefore always copied into one sized for its entries - the caller must assign the returned map.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public final class CreateOnWriteTrimmer {
+
+	/** occupancy ratio below which the storage is trimmed if not specified otherwise */
+	public static final float DEFAULT_MIN_OCCUPANCY = 0.5f;
+
+	private CreateOnWriteTrimmer() {
+	}
+
+	/**
+	 * Trim the list with the {@link #DEFAULT_MIN_OCCUPANCY}.
+	 * 
+	 * @param list the list to trim, may be <code>null</code>.
+	 * @return the list to assign to the owner's member variable.
+	 * @see #trim(List, float)
+	 */
+	public static <E> List<E> trim(List<E> list) {
+		return trim(list, DEFAULT_MIN_OCCUPANCY);
+	}
+
+	/**
+	 * Release the list if empty or trim its storage if the occupancy is below
+	 * <code>minOccupancy</code>.
+	 * 
+	 * @param list the list to trim, may be <code>null</code>.
+	 * @param minOccupancy ratio of size to capacity below which the storage is trimmed.
+	 * @return <code>null</code> if the list was empty, the same list otherwise.
+	 */
+	public static <E> List<E> trim(List<E> list, float minOccupancy) {
+		if (list == null) {
+			return null;
+		}
+		if (list instanceof CreateOnWriteList) {
+			((CreateOnWriteList<E>)list).trimWrapped(minOccupancy);
+			return list;
+		}
+		if (list.isEmpty()) {
+			return null;
+		}
+		trimInPlace(list, minOccupancy);
+		return list;
+	}
+
+	/**
+	 * Trim the map with the {@link #DEFAULT_MIN_OCCUPANCY}.
+	 * 
+	 * @param map the map to trim, may be <code>null</code>.
+	 * @return the map to assign to the owner's member variable.
+	 * @see #trim(Map, float)
+	 */
+	public static <K, V> Map<K, V> trim(Map<K, V> map) {
+		return trim(map, DEFAULT_MIN_OCCUPANCY);
+	}
+
+	/**
+	 * Release the map if empty, trim its storage if the occupancy is below <code>minOccupancy</code>
+	 * or copy a {@link HashMap} into an exactly sized one.
+	 * 
+	 * @param map the map to trim, may be <code>null</code>.
+	 * @param minOccupancy ratio of size to capacity below which the storage is trimmed.
+	 * @return <code>null</code> if the map was empty, the same or a copied map otherwise.
+	 */
+	public static <K, V> Map<K, V> trim(Map<K, V> map, float minOccupancy) {
+		if (map == null) {
+			return null;
+		}
+		if (map instanceof CreateOnWriteMap) {
+			((CreateOnWriteMap<K, V>)map).trimWrapped(minOccupancy);
+			return map;
+		}
+		if (map.isEmpty()) {
+			return null;
+		}
+		if (map.getClass() == HashMap.class) {
+			return new HashMap<K, V>(map);
+		}
+		trimInPlace(map, minOccupancy);
+		return map;
+	}
+
+	/**
+	 * Trim the storage of a non empty list without replacing the instance.
+	 * 
+	 * @param list the list to trim.
+	 * @param minOccupancy ratio of size to capacity below which the storage is trimmed.
+	 */
+	static void trimInPlace(List<?> list, float minOccupancy) {
+		if (list instanceof ArrayList) {
+			((ArrayList<?>)list).trimToSize();
+		} else if (list instanceof CreateOnWriteIntList) {
+			CreateOnWriteIntList intList = (CreateOnWriteIntList)list;
+			if (isBelow(intList.size(), intList.capacity(), minOccupancy)) {
+				intList.trimToSize();
+			}
+		} else if (list instanceof CreateOnWriteLongList) {
+			CreateOnWriteLongList longList = (CreateOnWriteLongList)list;
+			if (isBelow(longList.size(), longList.capacity(), minOccupancy)) {
+				longList.trimToSize();
+			}
+		}
+	}
+
+	/**
+	 * Trim the storage of a non empty map without replacing the instance.
+	 * 
+	 * @param map the map to trim.
+	 * @param minOccupancy ratio of size to capacity below which the storage is trimmed.
+	 */
+	static void trimInPlace(Map<?, ?> map, float minOccupancy) {
+		if (map instanceof CreateOnWriteLongObjectMap) {
+			CreateOnWriteLongObjectMap<?> longMap = (CreateOnWriteLongObjectMap<?>)map;
+			if (isBelow(longMap.size(), longMap.capacity(), minOccupancy)) {
+				longMap.trimToSize();
+			}
+		}
+	}
+
+	private static boolean isBelow(int size, int capacity, float minOccupancy) {
+		return size < capacity * minOccupancy;
+	}
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Shared state-less {@link ListIterator} over no elements, returned by the create-on-write
+ * collections while empty so iterating them allocates nothing.
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+final class EmptyListIterator implements ListIterator<Object> {
+
+	/** The shared instance. */
+	private static final EmptyListIterator INSTANCE = new EmptyListIterator();
+
+	/** Shared array returned by <code>toArray()</code> of empty create-on-write collections. */
+	static final Object[] EMPTY_ARRAY = new Object[0];
+
+	private EmptyListIterator() {
+	}
+
+	/**
+	 * Return the shared empty list iterator.
+	 * 
+	 * @return the shared empty list iterator.
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> ListIterator<E> emptyListIterator() {
+		return (ListIterator<E>)(ListIterator<?>)INSTANCE;
+	}
+
+	/**
+	 * Throw the same IndexOutOfBoundsException an empty {@link java.util.ArrayList} throws for an
+	 * index access.
+	 * 
+	 * @param index the accessed index.
+	 * @return never returns normally, declared to allow <code>throw outOfBounds(index)</code>.
+	 */
+	static IndexOutOfBoundsException outOfBounds(int index) {
+		throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+	}
+
+	@Override
+	public boolean hasNext() {
+		return false;
+	}
+
+	@Override
+	public Object next() {
+		throw new NoSuchElementException();
+	}
+
+	@Override
+	public boolean hasPrevious() {
+		return false;
+	}
+
+	@Override
+	public Object previous() {
+		throw new NoSuchElementException();
+	}
+
+	@Override
+	public int nextIndex() {
+		return 0;
+	}
+
+	@Override
+	public int previousIndex() {
+		return -1;
+	}
+
+	@Override
+	public void remove() {
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public void set(Object e) {
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public void add(Object e) {
+		throw new UnsupportedOperationException();
+	}
+}
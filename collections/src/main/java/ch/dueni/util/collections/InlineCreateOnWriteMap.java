@@ -0,0 +1,597 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <code>InlineCreateOnWriteMap</code> is a variant of {@link CreateOnWriteMap} for maps that most
+ * likely hold only a few entries. Up to {@link #getInlineThreshold()} entries are kept in one flat
+ * array of alternating keys and values, sized exactly to the number of entries. Only the put that
+ * exceeds the threshold calls {@link #newMap()}, copies the inline entries into the real map and from
+ * then on delegates to it.
+ * <p>
+ * Since the entries live within the <code>InlineCreateOnWriteMap</code> until the threshold is
+ * passed, it must be assigned to the owning object's member variable (test nr 4 in
+ * {@link CreateOnWriteMap}) - a new instance returned from the get-method would lose its entries.
+ * </p>
+ * 
+ * <pre>
+ * public class MyOwner {
+ * 	private Map&lt;String, String&gt; map = new InlineCreateOnWriteMap&lt;String, String&gt;() {
+ * 		&#064;Override
+ * 		public Map&lt;String, String&gt; newMap() {
+ * 			map = new HashMap&lt;String, String&gt;();
+ * 			return map;
+ * 		}
+ * 	};
+ * 
+ * 	public Map&lt;String, String&gt; getMap() {
+ * 		return map;
+ * 	}
+ * }
+ * </pre>
+ * <p>
+ * In the serialization stream an <code>InlineCreateOnWriteMap</code> is replaced by its inline
+ * entries (or the wrapped Map once created), so the owning object is not written through the
+ * anonymous subclass. It is read back as <code>InlineCreateOnWriteMap</code> creating a
+ * {@link java.util.HashMap} when the threshold is passed.
+ * </p>
+ * <p>
+ * Lookups compare keys linearly using {@link Object#equals(Object)}, which for a handful of entries
+ * is as fast as hashing and needs neither a table nor entry objects.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public abstract class InlineCreateOnWriteMap<K, V> implements Map<K, V>, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Default number of entries kept inline before {@link #newMap()} is called. */
+	public static final int DEFAULT_INLINE_THRESHOLD = 4;
+
+	/**
+	 * Inline entries as alternating key and value, exactly <code>2 * size</code> long or null while
+	 * empty.
+	 */
+	private transient Object[] inline;
+
+	/** Number of inline entries. */
+	private transient int size;
+
+	/** Maximum number of inline entries. */
+	private final transient int inlineThreshold;
+
+	/** The map returned from {@link #newMap()} once the inline threshold was passed. */
+	private transient Map<K, V> wrapped;
+
+	/**
+	 * Construct an <code>InlineCreateOnWriteMap</code> keeping up to
+	 * {@link #DEFAULT_INLINE_THRESHOLD} entries inline.
+	 */
+	protected InlineCreateOnWriteMap() {
+		this(DEFAULT_INLINE_THRESHOLD);
+	}
+
+	/**
+	 * Construct an <code>InlineCreateOnWriteMap</code> keeping up to the passed number of entries
+	 * inline.
+	 * 
+	 * @param inlineThreshold the maximum number of entries to keep inline, 0 behaves like
+	 *          {@link CreateOnWriteMap}.
+	 */
+	protected InlineCreateOnWriteMap(int inlineThreshold) {
+		if (inlineThreshold < 0) {
+			throw new IllegalArgumentException("inlineThreshold must not be negative: " + inlineThreshold);
+		}
+		this.inlineThreshold = inlineThreshold;
+	}
+
+	/**
+	 * Return the just created real Map after assigning it to the owning object's member variable.
+	 * Called on the put that exceeds {@link #getInlineThreshold()}, the inline entries are copied into
+	 * the returned map.
+	 * 
+	 * @return the just created real Map after assigning it to the owning object's member variable.
+	 * @see CreateOnWriteMap#newMap()
+	 */
+	public abstract Map<K, V> newMap();
+
+	/**
+	 * Return the maximum number of entries kept inline.
+	 * 
+	 * @return the maximum number of entries kept inline.
+	 */
+	public int getInlineThreshold() {
+		return inlineThreshold;
+	}
+
+	/**
+	 * Create the real map from {@link #newMap()}, move the inline entries into it and drop the inline
+	 * storage.
+	 * 
+	 * @return the real Map as returned from the call-back.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<K, V> promote() {
+		Map<K, V> real = newMap();
+		for (int i = 0; i < size; i++) {
+			real.put((K)inline[i << 1], (V)inline[(i << 1) + 1]);
+		}
+		inline = null;
+		size = 0;
+		wrapped = real;
+		return real;
+	}
+
+	/**
+	 * Replace this <code>InlineCreateOnWriteMap</code> in the serialization stream by the wrapped Map
+	 * or the inline entries if {@link #newMap()} was not called yet.
+	 * 
+	 * @return the object to serialize instead of this.
+	 * @throws ObjectStreamException never thrown.
+	 */
+	protected final Object writeReplace() throws ObjectStreamException {
+		if (wrapped != null) {
+			return wrapped;
+		}
+		return new CreateOnWriteSerialForm(inlineThreshold, inline);
+	}
+
+	private int indexOfKey(Object key) {
+		for (int i = 0; i < size; i++) {
+			if (eq(key, inline[i << 1])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int indexOfValue(Object value) {
+		for (int i = 0; i < size; i++) {
+			if (eq(value, inline[(i << 1) + 1])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean eq(Object o1, Object o2) {
+		return o1 == null ? o2 == null : o1.equals(o2);
+	}
+
+	/**
+	 * Remove the inline entry at the passed index and shrink the inline array to the new size.
+	 */
+	@SuppressWarnings("unchecked")
+	private V removeInline(int index) {
+		V old = (V)inline[(index << 1) + 1];
+		if (size == 1) {
+			inline = null;
+		} else {
+			Object[] shrunk = new Object[(size - 1) << 1];
+			System.arraycopy(inline, 0, shrunk, 0, index << 1);
+			System.arraycopy(inline, (index + 1) << 1, shrunk, index << 1, (size - index - 1) << 1);
+			inline = shrunk;
+		}
+		size--;
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		if (wrapped != null) {
+			wrapped.clear();
+		} else {
+			inline = null;
+			size = 0;
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (wrapped != null) {
+			return wrapped.containsKey(key);
+		}
+		return indexOfKey(key) >= 0;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		if (wrapped != null) {
+			return wrapped.containsValue(value);
+		}
+		return indexOfValue(value) >= 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		if (wrapped != null) {
+			return wrapped.get(key);
+		}
+		int i = indexOfKey(key);
+		return i < 0 ? null : (V)inline[(i << 1) + 1];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		if (wrapped != null) {
+			return wrapped.isEmpty();
+		}
+		return size == 0;
+	}
+
+	/**
+	 * Keep the entry inline as long as the inline threshold is not exceeded, otherwise make sure
+	 * wrapped is assigned from {@link #newMap()} and delegate the passed arguments to the wrapped
+	 * Map.
+	 * 
+	 * @see Map#put(Object, Object)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		if (wrapped != null) {
+			return wrapped.put(key, value);
+		}
+		int i = indexOfKey(key);
+		if (i >= 0) {
+			V old = (V)inline[(i << 1) + 1];
+			inline[(i << 1) + 1] = value;
+			return old;
+		}
+		if (size >= inlineThreshold) {
+			return promote().put(key, value);
+		}
+		Object[] grown = new Object[(size + 1) << 1];
+		if (inline != null) {
+			System.arraycopy(inline, 0, grown, 0, size << 1);
+		}
+		grown[size << 1] = key;
+		grown[(size << 1) + 1] = value;
+		inline = grown;
+		size++;
+		return null;
+	}
+
+	/**
+	 * Put all entries one by one - passing the inline threshold with any of them will move all
+	 * entries to the Map returned from {@link #newMap()}.
+	 * 
+	 * @see Map#putAll(Map)
+	 */
+	@Override
+	public void putAll(Map<? extends K, ? extends V> m) {
+		if (wrapped != null) {
+			wrapped.putAll(m);
+			return;
+		}
+		if (size + countNewKeys(m) > inlineThreshold) {
+			promote().putAll(m);
+			return;
+		}
+		for (Map.Entry<? extends K, ? extends V> e : m.entrySet()) {
+			put(e.getKey(), e.getValue());
+		}
+	}
+
+	/**
+	 * Count the keys of the passed map not contained inline, stops counting once the inline threshold
+	 * would be exceeded.
+	 */
+	private int countNewKeys(Map<?, ?> m) {
+		int added = 0;
+		for (Object key : m.keySet()) {
+			if (indexOfKey(key) < 0 && size + ++added > inlineThreshold) {
+				break;
+			}
+		}
+		return added;
+	}
+
+	@Override
+	public V remove(Object key) {
+		if (wrapped != null) {
+			return wrapped.remove(key);
+		}
+		int i = indexOfKey(key);
+		return i < 0 ? null : removeInline(i);
+	}
+
+	@Override
+	public int size() {
+		if (wrapped != null) {
+			return wrapped.size();
+		}
+		return size;
+	}
+
+	@Override
+	public Set<K> keySet() {
+		if (wrapped != null) {
+			return wrapped.keySet();
+		}
+		if (size == 0) {
+			return Collections.emptySet();
+		}
+		return new AbstractSet<K>() {
+			@Override
+			public Iterator<K> iterator() {
+				return new InlineIterator<K>(0);
+			}
+
+			@Override
+			public int size() {
+				return InlineCreateOnWriteMap.this.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return containsKey(o);
+			}
+		};
+	}
+
+	@Override
+	public Collection<V> values() {
+		if (wrapped != null) {
+			return wrapped.values();
+		}
+		if (size == 0) {
+			return Collections.emptySet();
+		}
+		return new AbstractCollection<V>() {
+			@Override
+			public Iterator<V> iterator() {
+				return new InlineIterator<V>(1);
+			}
+
+			@Override
+			public int size() {
+				return InlineCreateOnWriteMap.this.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return containsValue(o);
+			}
+		};
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		if (wrapped != null) {
+			return wrapped.entrySet();
+		}
+		if (size == 0) {
+			return Collections.emptySet();
+		}
+		return new AbstractSet<Map.Entry<K, V>>() {
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				return new InlineIterator<Map.Entry<K, V>>(-1);
+			}
+
+			@Override
+			public int size() {
+				return InlineCreateOnWriteMap.this.size();
+			}
+		};
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (wrapped != null) {
+			return wrapped.equals(obj);
+		}
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof Map)) {
+			return false;
+		}
+		Map<?, ?> other = (Map<?, ?>)obj;
+		if (other.size() != size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			Object key = inline[i << 1];
+			Object value = inline[(i << 1) + 1];
+			if (value == null ? other.get(key) != null || !other.containsKey(key) : !value.equals(other
+					.get(key))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		if (wrapped != null) {
+			return wrapped.hashCode();
+		}
+		int h = 0;
+		for (int i = 0; i < size; i++) {
+			Object key = inline[i << 1];
+			Object value = inline[(i << 1) + 1];
+			h += (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+		}
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		if (wrapped != null) {
+			return wrapped.toString();
+		}
+		if (size == 0) {
+			return "{}";
+		}
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(inline[i << 1]).append('=').append(inline[(i << 1) + 1]);
+		}
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * Iterator over the inline entries returning keys (offset 0), values (offset 1) or entries
+	 * (offset -1).
+	 */
+	private class InlineIterator<T> implements Iterator<T> {
+
+		private final int offset;
+
+		private int next;
+
+		private int last = -1;
+
+		private Object[] expected = inline;
+
+		InlineIterator(int offset) {
+			this.offset = offset;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next() {
+			checkForComodification();
+			if (next >= size) {
+				throw new NoSuchElementException();
+			}
+			last = next++;
+			if (offset < 0) {
+				return (T)new InlineEntry((K)inline[last << 1], (V)inline[(last << 1) + 1]);
+			}
+			return (T)inline[(last << 1) + offset];
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			removeInline(last);
+			expected = inline;
+			next = last;
+			last = -1;
+		}
+
+		private void checkForComodification() {
+			if (wrapped != null || expected != inline) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	/**
+	 * Entry view on an inline key/value pair. It keeps its key and looks the mapping up on each
+	 * access, as the inline array is replaced on remove and dropped on promotion. Once the key is
+	 * removed, the entry keeps the last value seen like a removed {@link java.util.HashMap} entry.
+	 */
+	private class InlineEntry implements Map.Entry<K, V> {
+
+		private final K key;
+
+		private V value;
+
+		InlineEntry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V getValue() {
+			if (wrapped != null) {
+				if (wrapped.containsKey(key)) {
+					value = wrapped.get(key);
+				}
+			} else {
+				int i = indexOfKey(key);
+				if (i >= 0) {
+					value = (V)inline[(i << 1) + 1];
+				}
+			}
+			return value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V old = getValue();
+			if (wrapped != null) {
+				if (wrapped.containsKey(key)) {
+					wrapped.put(key, value);
+				}
+			} else {
+				int i = indexOfKey(key);
+				if (i >= 0) {
+					inline[(i << 1) + 1] = value;
+				}
+			}
+			this.value = value;
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>)obj;
+			return eq(getKey(), e.getKey()) && eq(getValue(), e.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			K key = getKey();
+			V value = getValue();
+			return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+}
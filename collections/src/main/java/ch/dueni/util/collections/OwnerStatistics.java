@@ -0,0 +1,105 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util.collections;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Snapshot of the {@link CreateOnWriteMetrics} collected for one owning class, the class
+ * implementing the call-back - or the class enclosing it for anonymous, local and inner classes.
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public class OwnerStatistics {
+
+	private final String ownerClass;
+
+	private final long created;
+
+	private final long materialized;
+
+	private final double averageTimeToFirstWriteMillis;
+
+	private final int liveDelegates;
+
+	private final long estimatedDelegateBytes;
+
+	@ConstructorProperties({ "ownerClass", "created", "materialized", "averageTimeToFirstWriteMillis",
+			"liveDelegates", "estimatedDelegateBytes" })
+	public OwnerStatistics(String ownerClass, long created, long materialized,
+			double averageTimeToFirstWriteMillis, int liveDelegates, long estimatedDelegateBytes) {
+		this.ownerClass = ownerClass;
+		this.created = created;
+		this.materialized = materialized;
+		this.averageTimeToFirstWriteMillis = averageTimeToFirstWriteMillis;
+		this.liveDelegates = liveDelegates;
+		this.estimatedDelegateBytes = estimatedDelegateBytes;
+	}
+
+	/**
+	 * @return name of the owning class.
+	 */
+	public String getOwnerClass() {
+		return ownerClass;
+	}
+
+	/**
+	 * @return number of create-on-write collections created.
+	 */
+	public long getCreated() {
+		return created;
+	}
+
+	/**
+	 * @return number of create-on-write collections which created their real collection.
+	 */
+	public long getMaterialized() {
+		return materialized;
+	}
+
+	/**
+	 * @return average time from creation to first write of the materialized collections, 0 if none
+	 *         was timed.
+	 */
+	public double getAverageTimeToFirstWriteMillis() {
+		return averageTimeToFirstWriteMillis;
+	}
+
+	/**
+	 * @return number of materialized delegates not yet garbage collected.
+	 */
+	public int getLiveDelegates() {
+		return liveDelegates;
+	}
+
+	/**
+	 * @return estimated bytes held by the live delegates, excluding the elements.
+	 */
+	public long getEstimatedDelegateBytes() {
+		return estimatedDelegateBytes;
+	}
+
+	@Override
+	public String toString() {
+		return ownerClass + "[created=" + created + ", materialized=" + materialized
+				+ ", averageTimeToFirstWriteMillis=" + averageTimeToFirstWriteMillis
+				+ ", liveDelegates=" + liveDelegates + ", estimatedDelegateBytes="
+				+ estimatedDelegateBytes + "]";
+	}
+
+}
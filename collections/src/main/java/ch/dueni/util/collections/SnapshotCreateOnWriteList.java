@@ -0,0 +1,517 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * <code>SnapshotCreateOnWriteList</code> is a copy-on-write variant of {@link CreateOnWriteList}
+ * for lists that are iterated far more often than changed and shared between threads, like
+ * listener lists or lists attached to a view.
+ * <p>
+ * Like {@link java.util.concurrent.CopyOnWriteArrayList} every mutator copies the elements into a
+ * new array and publishes it through a volatile field, readers and iterators work on the array
+ * found when they started and never see a {@link ConcurrentModificationException}. Unlike
+ * <code>CopyOnWriteArrayList</code> no array is allocated while the list is empty - the empty list
+ * only costs its own object header and one reference, and {@link #clear()} releases the array.
+ * </p>
+ * <p>
+ * Mutators synchronize on the list instance, iterators and read methods take no lock. Iterators,
+ * list iterators and sub lists are read-only snapshots.
+ * </p>
+ * 
+ * <pre>
+ * public class MyComponent {
+ * 	private final List&lt;Listener&gt; listeners = new SnapshotCreateOnWriteList&lt;Listener&gt;();
+ * }
+ * </pre>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public class SnapshotCreateOnWriteList<E> implements List<E>, RandomAccess, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Shared array returned by {@link #snapshot()} while empty. */
+	private static final Object[] EMPTY = new Object[0];
+
+	/** The elements, null while the list is empty. */
+	private transient volatile Object[] array;
+
+	/**
+	 * Construct an empty <code>SnapshotCreateOnWriteList</code>.
+	 */
+	public SnapshotCreateOnWriteList() {
+	}
+
+	/**
+	 * Construct a <code>SnapshotCreateOnWriteList</code> containing the elements of the passed
+	 * collection.
+	 * 
+	 * @param c the elements to initially contain.
+	 */
+	public SnapshotCreateOnWriteList(Collection<? extends E> c) {
+		Object[] elements = c.toArray();
+		if (elements.length > 0) {
+			array = Arrays.copyOf(elements, elements.length, Object[].class);
+		}
+	}
+
+	/**
+	 * Return the current array, never null.
+	 */
+	private Object[] snapshot() {
+		Object[] a = array;
+		return a == null ? EMPTY : a;
+	}
+
+	/**
+	 * Publish the passed elements, an empty array releases the storage.
+	 */
+	private void publish(Object[] elements) {
+		array = elements.length == 0 ? null : elements;
+	}
+
+	private static int indexOf(Object o, Object[] elements, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (o == null ? elements[i] == null : o.equals(elements[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static void checkIndex(int index, int size) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> E elementAt(Object[] elements, int index) {
+		return (E)elements[index];
+	}
+
+	// === read methods, lock-free ===
+
+	@Override
+	public int size() {
+		Object[] a = array;
+		return a == null ? 0 : a.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return array == null;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		Object[] a = snapshot();
+		return indexOf(o, a, 0, a.length) >= 0;
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		Object[] a = snapshot();
+		for (Object o : c) {
+			if (indexOf(o, a, 0, a.length) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public E get(int index) {
+		Object[] a = snapshot();
+		checkIndex(index, a.length);
+		return elementAt(a, index);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		Object[] a = snapshot();
+		return indexOf(o, a, 0, a.length);
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		Object[] a = snapshot();
+		for (int i = a.length - 1; i >= 0; i--) {
+			if (o == null ? a[i] == null : o.equals(a[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Return an iterator over the elements at the time of this call, not supporting
+	 * {@link Iterator#remove()}.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return listIterator(0);
+	}
+
+	@Override
+	public ListIterator<E> listIterator() {
+		return listIterator(0);
+	}
+
+	/**
+	 * Return a list iterator over the elements at the time of this call, not supporting any
+	 * modification.
+	 */
+	@Override
+	public ListIterator<E> listIterator(int index) {
+		Object[] a = array;
+		if (a == null) {
+			if (index != 0) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+			}
+			return EmptyListIterator.emptyListIterator();
+		}
+		if (index < 0 || index > a.length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + a.length);
+		}
+		return new SnapshotIterator<E>(a, index);
+	}
+
+	/**
+	 * Return a read-only snapshot of the elements in the passed range.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<E> subList(int fromIndex, int toIndex) {
+		Object[] a = snapshot();
+		if (fromIndex < 0 || toIndex > a.length || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex
+					+ ", Size: " + a.length);
+		}
+		if (fromIndex == toIndex) {
+			return Collections.EMPTY_LIST;
+		}
+		return Collections.unmodifiableList((List<E>)Arrays.asList(a).subList(fromIndex, toIndex));
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] a = snapshot();
+		return a.length == 0 ? a : a.clone();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T[] toArray(T[] a) {
+		Object[] elements = snapshot();
+		if (a.length < elements.length) {
+			return (T[])Arrays.copyOf(elements, elements.length, a.getClass());
+		}
+		System.arraycopy(elements, 0, a, 0, elements.length);
+		if (a.length > elements.length) {
+			a[elements.length] = null;
+		}
+		return a;
+	}
+
+	// === mutators, copy under lock ===
+
+	@Override
+	public synchronized boolean add(E e) {
+		Object[] a = snapshot();
+		Object[] copy = Arrays.copyOf(a, a.length + 1);
+		copy[a.length] = e;
+		publish(copy);
+		return true;
+	}
+
+	/**
+	 * Append the passed element unless it is contained already.
+	 * 
+	 * @param e element to add.
+	 * @return true if the element was added.
+	 */
+	public synchronized boolean addIfAbsent(E e) {
+		Object[] a = snapshot();
+		if (indexOf(e, a, 0, a.length) >= 0) {
+			return false;
+		}
+		return add(e);
+	}
+
+	@Override
+	public synchronized void add(int index, E element) {
+		Object[] a = snapshot();
+		if (index < 0 || index > a.length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + a.length);
+		}
+		Object[] copy = new Object[a.length + 1];
+		System.arraycopy(a, 0, copy, 0, index);
+		System.arraycopy(a, index, copy, index + 1, a.length - index);
+		copy[index] = element;
+		publish(copy);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		Object[] added = c.toArray();
+		if (added.length == 0) {
+			return false;
+		}
+		synchronized (this) {
+			Object[] a = snapshot();
+			Object[] copy = Arrays.copyOf(a, a.length + added.length);
+			System.arraycopy(added, 0, copy, a.length, added.length);
+			publish(copy);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends E> c) {
+		Object[] added = c.toArray();
+		synchronized (this) {
+			Object[] a = snapshot();
+			if (index < 0 || index > a.length) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + a.length);
+			}
+			if (added.length == 0) {
+				return false;
+			}
+			Object[] copy = new Object[a.length + added.length];
+			System.arraycopy(a, 0, copy, 0, index);
+			System.arraycopy(added, 0, copy, index, added.length);
+			System.arraycopy(a, index, copy, index + added.length, a.length - index);
+			publish(copy);
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized E set(int index, E element) {
+		Object[] a = snapshot();
+		checkIndex(index, a.length);
+		E old = elementAt(a, index);
+		if (old != element) {
+			Object[] copy = a.clone();
+			copy[index] = element;
+			publish(copy);
+		}
+		return old;
+	}
+
+	@Override
+	public synchronized E remove(int index) {
+		Object[] a = snapshot();
+		checkIndex(index, a.length);
+		E old = elementAt(a, index);
+		publish(without(a, index));
+		return old;
+	}
+
+	@Override
+	public synchronized boolean remove(Object o) {
+		Object[] a = snapshot();
+		int index = indexOf(o, a, 0, a.length);
+		if (index < 0) {
+			return false;
+		}
+		publish(without(a, index));
+		return true;
+	}
+
+	private static Object[] without(Object[] a, int index) {
+		Object[] copy = new Object[a.length - 1];
+		System.arraycopy(a, 0, copy, 0, index);
+		System.arraycopy(a, index + 1, copy, index, a.length - index - 1);
+		return copy;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		return retain(c, false);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		return retain(c, true);
+	}
+
+	private synchronized boolean retain(Collection<?> c, boolean keepContained) {
+		Object[] a = array;
+		if (a == null) {
+			return false;
+		}
+		Object[] kept = new Object[a.length];
+		int size = 0;
+		for (Object o : a) {
+			if (c.contains(o) == keepContained) {
+				kept[size++] = o;
+			}
+		}
+		if (size == a.length) {
+			return false;
+		}
+		publish(Arrays.copyOf(kept, size));
+		return true;
+	}
+
+	/**
+	 * Remove all elements and release the array.
+	 */
+	@Override
+	public synchronized void clear() {
+		array = null;
+	}
+
+	// === Object methods ===
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof List)) {
+			return false;
+		}
+		Object[] a = snapshot();
+		Iterator<?> it = ((List<?>)obj).iterator();
+		for (Object o : a) {
+			if (!it.hasNext()) {
+				return false;
+			}
+			Object other = it.next();
+			if (o == null ? other != null : !o.equals(other)) {
+				return false;
+			}
+		}
+		return !it.hasNext();
+	}
+
+	@Override
+	public int hashCode() {
+		int hashCode = 1;
+		for (Object o : snapshot()) {
+			hashCode = 31 * hashCode + (o == null ? 0 : o.hashCode());
+		}
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(snapshot());
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		Object[] a = snapshot();
+		out.writeInt(a.length);
+		for (Object o : a) {
+			out.writeObject(o);
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int size = in.readInt();
+		Object[] a = new Object[size];
+		for (int i = 0; i < size; i++) {
+			a[i] = in.readObject();
+		}
+		publish(a);
+	}
+
+	/**
+	 * Read-only list iterator over one snapshot array.
+	 */
+	private static class SnapshotIterator<E> implements ListIterator<E> {
+
+		private final Object[] snapshot;
+
+		private int cursor;
+
+		SnapshotIterator(Object[] snapshot, int cursor) {
+			this.snapshot = snapshot;
+			this.cursor = cursor;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return cursor < snapshot.length;
+		}
+
+		@Override
+		public E next() {
+			if (cursor >= snapshot.length) {
+				throw new NoSuchElementException();
+			}
+			return elementAt(snapshot, cursor++);
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+
+		@Override
+		public E previous() {
+			if (cursor <= 0) {
+				throw new NoSuchElementException();
+			}
+			return elementAt(snapshot, --cursor);
+		}
+
+		@Override
+		public int nextIndex() {
+			return cursor;
+		}
+
+		@Override
+		public int previousIndex() {
+			return cursor - 1;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void set(E e) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void add(E e) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ConcurrentCreateOnWriteMapTest {
+
+	@Test
+	public void testEmptyMap() {
+		ConcurrentMap<String, String> m = new ConcurrentCreateOnWriteMap<String, String>();
+		assertTrue(m.isEmpty());
+		m.clear(); // no exception expected
+		assertFalse(m.containsKey("a"));
+		assertFalse(m.containsValue("a"));
+		assertEquals(0, m.entrySet().size());
+		assertNull(m.get("a"));
+		assertEquals(0, m.keySet().size());
+		assertNull(m.remove("a"));
+		assertFalse(m.remove("a", "a"));
+		assertNull(m.replace("a", "a"));
+		assertFalse(m.replace("a", "a", "b"));
+		assertEquals(0, m.size());
+		assertEquals(0, m.values().size());
+		assertEquals(new HashMap<String, String>(), m);
+		assertEquals(0, m.hashCode());
+	}
+
+	@Test
+	public void testPut() {
+		ConcurrentMap<String, String> m = new ConcurrentCreateOnWriteMap<String, String>();
+		assertNull(m.putIfAbsent("a", "1"));
+		assertEquals("1", m.putIfAbsent("a", "2"));
+		assertNull(m.put("b", "2"));
+		assertEquals("2", m.replace("b", "3"));
+		assertTrue(m.replace("b", "3", "4"));
+		assertTrue(m.remove("b", "4"));
+		assertEquals(1, m.size());
+		Map<String, String> expected = new HashMap<String, String>();
+		expected.put("a", "1");
+		assertEquals(expected, m);
+		assertEquals(expected.hashCode(), m.hashCode());
+	}
+
+	@Test
+	public void testConcurrentFirstPut() throws Exception {
+		final int threads = 8;
+		final int rounds = 200;
+		for (int round = 0; round < rounds; round++) {
+			final AtomicInteger created = new AtomicInteger();
+			final ConcurrentMap<Integer, Integer> m = new ConcurrentCreateOnWriteMap<Integer, Integer>() {
+				@Override
+				protected ConcurrentMap<Integer, Integer> newMap() {
+					created.incrementAndGet();
+					return new ConcurrentHashMap<Integer, Integer>();
+				}
+			};
+			final CountDownLatch start = new CountDownLatch(1);
+			List<Thread> workers = new ArrayList<Thread>();
+			for (int t = 0; t < threads; t++) {
+				final Integer key = Integer.valueOf(t);
+				Thread worker = new Thread() {
+					@Override
+					public void run() {
+						try {
+							start.await();
+						} catch (InterruptedException e) {
+							return;
+						}
+						m.put(key, key);
+					}
+				};
+				worker.start();
+				workers.add(worker);
+			}
+			start.countDown();
+			for (Thread worker : workers) {
+				worker.join();
+			}
+			// whoever won the race, no write may be lost
+			assertEquals(threads, m.size());
+			assertTrue(created.get() >= 1);
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Verify with the allocated bytes counter of the current thread that read-only operations on empty
+ * create-on-write collections allocate nothing.
+ */
+public class CreateOnWriteAllocationTest {
+
+	private static final int CALLS = 10000;
+
+	private com.sun.management.ThreadMXBean threadBean;
+
+	/** Sink to keep results alive. */
+	private Object sink;
+
+	/** A read-only operation on an empty collection. */
+	private interface Operation {
+		Object run();
+	}
+
+	@Before
+	public void setup() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		threadBean = (com.sun.management.ThreadMXBean)bean;
+		assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	@Test
+	public void testEmptyListReadsAllocateNothing() {
+		final List<String> l = new CreateOnWriteList<String>() {
+			@Override
+			public List<String> newList() {
+				return new ArrayList<String>(1);
+			}
+		};
+		assertNoAllocation("iterator", new Operation() {
+			public Object run() {
+				return l.iterator();
+			}
+		});
+		assertNoAllocation("for-each", new Operation() {
+			public Object run() {
+				for (String s : l) {
+					return s;
+				}
+				return null;
+			}
+		});
+		assertNoAllocation("listIterator", new Operation() {
+			public Object run() {
+				return l.listIterator();
+			}
+		});
+		assertNoAllocation("listIterator(0)", new Operation() {
+			public Object run() {
+				return l.listIterator(0);
+			}
+		});
+		assertNoAllocation("subList(0, 0)", new Operation() {
+			public Object run() {
+				return l.subList(0, 0);
+			}
+		});
+		assertNoAllocation("toArray", new Operation() {
+			public Object run() {
+				return l.toArray();
+			}
+		});
+		assertNoAllocation("toString", new Operation() {
+			public Object run() {
+				return l.toString();
+			}
+		});
+	}
+
+	@Test
+	public void testEmptyMapReadsAllocateNothing() {
+		final Map<String, String> m = new CreateOnWriteMap<String, String>() {
+			@Override
+			public Map<String, String> newMap() {
+				return new HashMap<String, String>(2);
+			}
+		};
+		final Map<String, String> inline = new InlineCreateOnWriteMap<String, String>() {
+			@Override
+			public Map<String, String> newMap() {
+				return new HashMap<String, String>();
+			}
+		};
+		for (final Map<String, String> map : new Map[] { m, inline }) {
+			String type = map.getClass().getSuperclass().getSimpleName();
+			assertNoAllocation(type + ".entrySet", new Operation() {
+				public Object run() {
+					return map.entrySet().iterator();
+				}
+			});
+			assertNoAllocation(type + ".keySet", new Operation() {
+				public Object run() {
+					return map.keySet().iterator();
+				}
+			});
+			assertNoAllocation(type + ".values", new Operation() {
+				public Object run() {
+					return map.values().iterator();
+				}
+			});
+			assertNoAllocation(type + ".toString", new Operation() {
+				public Object run() {
+					return map.toString();
+				}
+			});
+		}
+	}
+
+	@Test
+	public void testEmptyPrimitiveReadsAllocateNothing() {
+		final CreateOnWriteLongList l = new CreateOnWriteLongList() {
+			@Override
+			public void newList() {
+			}
+		};
+		final CreateOnWriteLongObjectMap<String> m = new CreateOnWriteLongObjectMap<String>() {
+			@Override
+			public void newMap() {
+			}
+		};
+		assertNoAllocation("CreateOnWriteLongList.iterator", new Operation() {
+			public Object run() {
+				return l.iterator();
+			}
+		});
+		assertNoAllocation("CreateOnWriteLongList.toLongArray", new Operation() {
+			public Object run() {
+				return l.toLongArray();
+			}
+		});
+		assertNoAllocation("CreateOnWriteLongObjectMap.entrySet", new Operation() {
+			public Object run() {
+				return m.entrySet().iterator();
+			}
+		});
+		assertNoAllocation("CreateOnWriteLongObjectMap.keys", new Operation() {
+			public Object run() {
+				return m.keys();
+			}
+		});
+	}
+
+	private void assertNoAllocation(String name, Operation operation) {
+		long threadId = Thread.currentThread().getId();
+		// warm up and measure the overhead of the measurement itself
+		for (int i = 0; i < CALLS; i++) {
+			sink = operation.run();
+		}
+		long overhead = threadBean.getThreadAllocatedBytes(threadId);
+		overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < CALLS; i++) {
+			sink = operation.run();
+		}
+		long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+		assertEquals(name + " allocated bytes per call", 0, Math.max(0, allocated) / CALLS);
+	}
+}
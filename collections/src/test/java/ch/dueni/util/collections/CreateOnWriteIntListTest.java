@@ -0,0 +1,106 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.ListIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CreateOnWriteIntListTest {
+
+	// use _ prefix for better distinction with test local variables
+	private CreateOnWriteIntList _list;
+
+	public CreateOnWriteIntList getListNull() {
+		if (_list == null) {
+			return new CreateOnWriteIntList() {
+				@Override
+				public void newList() {
+					_list = this;
+				}
+			};
+		}
+		return _list;
+	}
+
+	@Before
+	public void beforeTest() {
+		_list = null;
+	}
+
+	@Test
+	public void testListNullReadApi() {
+		CreateOnWriteIntList l = getListNull();
+		assertFalse(l.containsInt(1));
+		assertTrue(l.isEmpty());
+		assertEquals(0, l.toIntArray().length);
+		assertNull(_list);
+	}
+
+	@Test
+	public void testListNullAdd() {
+		getListNull().addInt(3);
+		getListNull().add(Integer.valueOf(1));
+		getListNull().addInt(0, 2);
+		CreateOnWriteIntList l = getListNull();
+		assertSame(_list, l);
+		assertTrue(Arrays.equals(new int[] { 2, 3, 1 }, l.toIntArray()));
+		assertEquals(Arrays.asList(2, 3, 1), l);
+		assertEquals(1, l.removeIntAt(2));
+		assertTrue(l.remove(Integer.valueOf(2)));
+		assertEquals(Integer.valueOf(3), l.remove(0));
+		assertTrue(l.isEmpty());
+	}
+
+	@Test
+	public void testAddAllNullElement() {
+		CreateOnWriteIntList l = getListNull();
+		l.addInt(1);
+		l.addInt(2);
+		try {
+			l.addAll(1, Arrays.asList(Integer.valueOf(3), null));
+			fail("null element must be rejected");
+		} catch (NullPointerException e) {
+			// expected
+		}
+		assertTrue(Arrays.equals(new int[] { 1, 2 }, l.toIntArray()));
+	}
+
+	@Test
+	public void testAddAllSelf() {
+		CreateOnWriteIntList l = getListNull();
+		l.addInt(1);
+		l.addInt(2);
+		assertTrue(l.addAll(1, l));
+		assertTrue(Arrays.equals(new int[] { 1, 1, 2, 2 }, l.toIntArray()));
+		assertTrue(l.addAll(l));
+		assertEquals(8, l.size());
+	}
+
+	@Test
+	public void testEmptyListIteratorAdd() {
+		CreateOnWriteIntList l = getListNull();
+		ListIterator<Integer> it = l.listIterator();
+		it.add(Integer.valueOf(1));
+		it.add(Integer.valueOf(2));
+		assertTrue(Arrays.equals(new int[] { 1, 2 }, l.toIntArray()));
+	}
+}
@@ -19,9 +19,12 @@ package ch.dueni.util.collections;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 
@@ -76,23 +79,45 @@ public class CreateOnWriteListTest {
 		l.clear(); // no exception expected
 		assertFalse(l.contains("a"));
 		assertFalse(l.containsAll(getCollection()));
-		assertNull(l.get(1));
 		assertEquals(-1, l.indexOf("a"));
 		assertTrue(l.isEmpty());
 		assertFalse(l.iterator().hasNext());
 		assertEquals(-1, l.lastIndexOf("a"));
 		assertFalse(l.listIterator().hasNext());
 		assertFalse(l.listIterator().hasPrevious());
-		assertFalse(l.listIterator(1).hasNext());
-		assertFalse(l.listIterator(1).hasPrevious());
-		assertNull(l.remove(1));
+		assertFalse(l.listIterator(0).hasNext());
+		assertFalse(l.listIterator(0).hasPrevious());
+		try {
+			l.remove(1);
+			fail("remove(1) on an empty list must throw");
+		} catch (IndexOutOfBoundsException e) {
+			// expected, like an empty ArrayList
+		}
 		assertFalse(l.remove("a"));
 		assertFalse(l.removeAll(getCollection()));
 		assertFalse(l.retainAll(getCollection()));
 		assertEquals(0, l.size());
-		assertTrue(l.subList(0, 1).isEmpty());
+		assertTrue(l.subList(0, 0).isEmpty());
 		assertEquals(0, l.toArray().length);
 		assertEquals(0, l.toArray(new String[l.size()]).length);
+		assertTrue(l.equals(new ArrayList<String>()));
+		assertEquals(new ArrayList<String>().hashCode(), l.hashCode());
+		assertEquals("[]", l.toString());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testListPresetGet() {
+		getListPreset().get(0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testListPresetListIteratorIndex() {
+		getListPreset().listIterator(1);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testListPresetSubList() {
+		getListPreset().subList(0, 1);
 	}
 
 	@Test
@@ -165,7 +190,7 @@ public class CreateOnWriteListTest {
 		assertEquals(-1, l.indexOf("d"));
 	}
 
-	@Test(expected = UnsupportedOperationException.class)
+	@Test(expected = IndexOutOfBoundsException.class)
 	public void testListPresetSet() {
 		assertNull(_list);
 		List<String> l = getListPreset();
@@ -186,25 +211,34 @@ public class CreateOnWriteListTest {
 		l.clear(); // no exception expected
 		assertFalse(l.contains("a"));
 		assertFalse(l.containsAll(getCollection()));
-		assertNull(l.get(1));
 		assertEquals(-1, l.indexOf("a"));
 		assertTrue(l.isEmpty());
 		assertFalse(l.iterator().hasNext());
 		assertEquals(-1, l.lastIndexOf("a"));
 		assertFalse(l.listIterator().hasNext());
 		assertFalse(l.listIterator().hasPrevious());
-		assertFalse(l.listIterator(1).hasNext());
-		assertFalse(l.listIterator(1).hasPrevious());
-		assertNull(l.remove(1));
+		assertFalse(l.listIterator(0).hasNext());
+		assertFalse(l.listIterator(0).hasPrevious());
+		try {
+			l.remove(1);
+			fail("remove(1) on an empty list must throw");
+		} catch (IndexOutOfBoundsException e) {
+			// expected, like an empty ArrayList
+		}
 		assertFalse(l.remove("a"));
 		assertFalse(l.removeAll(getCollection()));
 		assertFalse(l.retainAll(getCollection()));
 		assertEquals(0, l.size());
-		assertTrue(l.subList(0, 1).isEmpty());
+		assertTrue(l.subList(0, 0).isEmpty());
 		assertEquals(0, l.toArray().length);
 		assertEquals(0, l.toArray(new String[l.size()]).length);
 	}
 
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testListNullGet() {
+		getListNull().get(1);
+	}
+
 	@Test
 	public void testListNullAdd() {
 		assertNull(_list);
@@ -275,7 +309,7 @@ public class CreateOnWriteListTest {
 		assertEquals(-1, l.indexOf("d"));
 	}
 
-	@Test(expected = UnsupportedOperationException.class)
+	@Test(expected = IndexOutOfBoundsException.class)
 	public void testListNullSet() {
 		assertNull(_list);
 		List<String> l = getListNull();
@@ -350,12 +384,132 @@ public class CreateOnWriteListTest {
 		assertTrue(l.contains("c"));
 		
 	}
-	
-	
-	
-	
 
-	// === private methods ===
+	@Test
+	public void testReleaseWhenEmpty() {
+		List<String> l = new CreateOnWriteList<String>() {
+			@Override
+			public List<String> newList() {
+				_list = new ArrayList<String>(1);
+				return _list;
+			}
+
+			@Override
+			protected boolean isReleaseWhenEmpty() {
+				return true;
+			}
+		};
+		l.addAll(getCollection());
+		List<String> first = _list;
+		l.clear();
+		assertTrue(first.isEmpty());
+		l.add("a");
+		assertFalse(first == _list);
+		assertEquals("a", _list.get(0));
+		assertEquals("a", l.remove(0));
+		l.add("b");
+		assertEquals(1, _list.size());
+		assertEquals(1, l.size());
+	}
+
+	@Test
+	public void testOwnerWriteAfterRelease() {
+		List<String> l = new CreateOnWriteList<String>() {
+			@Override
+			public List<String> newList() {
+				_list = new ArrayList<String>(1);
+				return _list;
+			}
+
+			@Override
+			protected boolean isReleaseWhenEmpty() {
+				return true;
+			}
+		};
+		l.add("a");
+		l.remove("a");
+		_list.add("owner");
+		assertEquals(1, l.size());
+		l.add("wrapper");
+		assertEquals(2, _list.size());
+		assertEquals("owner", _list.get(0));
+		assertEquals("wrapper", l.get(1));
+	}
+
+	@Test
+	public void testKeepWhenEmptyByDefault() {
+		List<String> l = getListNull();
+		l.addAll(getCollection());
+		List<String> first = _list;
+		l.clear();
+		l.add("a");
+		assertTrue(first == _list);
+	}
+
+	@Test
+	public void testOfAssigner() {
+		List<String> l = CreateOnWriteList.of(new CollectionAssigner<List<String>>() {
+			@Override
+			public void assign(List<String> created) {
+				_list = created;
+			}
+		});
+		assertTrue(l.isEmpty());
+		assertNull(_list);
+		l.add("a");
+		assertTrue(_list instanceof ArrayList);
+		assertEquals("a", _list.get(0));
+		assertEquals(l, _list);
+	}
+
+	@Test
+	public void testOfFactory() {
+		CollectionAssigner<List<String>> assigner = new CollectionAssigner<List<String>>() {
+			@Override
+			public void assign(List<String> created) {
+				_list = created;
+			}
+		};
+		CollectionFactory<List<String>> factory = new CollectionFactory<List<String>>() {
+			@Override
+			public List<String> create() {
+				return new LinkedList<String>();
+			}
+		};
+		List<String> l1 = CreateOnWriteList.of(factory, assigner);
+		List<String> l2 = CreateOnWriteList.of(factory, assigner);
+		assertSame(l1.getClass(), l2.getClass());
+		l1.addAll(getCollection());
+		assertTrue(_list instanceof LinkedList);
+		assertEquals(3, _list.size());
+	}
+
+	@Test
+	public void testOfNullAssigner() {
+		try {
+			CreateOnWriteList.of(null);
+			fail("NullPointerException expected");
+		} catch (NullPointerException e) {
+			assertEquals("assigner must not be null", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testOfNullFactory() {
+		try {
+			CreateOnWriteList.of(null, new CollectionAssigner<List<String>>() {
+				@Override
+				public void assign(List<String> created) {
+					_list = created;
+				}
+			});
+			fail("NullPointerException expected");
+		} catch (NullPointerException e) {
+			assertEquals("factory must not be null", e.getMessage());
+		}
+	}
+
+		// === private methods ===
 
 	private List<String> getCollection() {
 		List<String> c = new ArrayList<String>();
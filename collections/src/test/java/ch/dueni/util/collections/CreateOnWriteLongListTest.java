@@ -0,0 +1,162 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CreateOnWriteLongListTest {
+
+	// use _ prefix for better distinction with test local variables
+	private CreateOnWriteLongList _list;
+
+	public CreateOnWriteLongList getListNull() {
+		if (_list == null) {
+			return new CreateOnWriteLongList() {
+				@Override
+				public void newList() {
+					_list = this;
+				}
+			};
+		}
+		return _list;
+	}
+
+	@Before
+	public void beforeTest() {
+		_list = null;
+	}
+
+	@Test
+	public void testListNullReadApi() {
+		CreateOnWriteLongList l = getListNull();
+		assertNull(_list);
+		l.clear(); // no exception expected
+		assertFalse(l.contains(Long.valueOf(1)));
+		assertFalse(l.containsLong(1));
+		assertEquals(-1, l.indexOf(Long.valueOf(1)));
+		assertEquals(-1, l.lastIndexOfLong(1));
+		assertTrue(l.isEmpty());
+		assertFalse(l.iterator().hasNext());
+		assertFalse(l.remove(Long.valueOf(1)));
+		assertFalse(l.removeLong(1));
+		assertEquals(0, l.size());
+		assertEquals(0, l.toArray().length);
+		assertEquals(0, l.toLongArray().length);
+		l.trimToSize();
+		assertNull(_list);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testListNullGet() {
+		getListNull().getLong(0);
+	}
+
+	@Test
+	public void testListNullAdd() {
+		getListNull().addLong(42);
+		assertNotNull(_list);
+		CreateOnWriteLongList l = getListNull();
+		assertSame(_list, l);
+		assertEquals(1, l.size());
+		assertEquals(42, l.getLong(0));
+		assertEquals(Long.valueOf(42), l.get(0));
+		assertTrue(l.contains(Long.valueOf(42)));
+		assertFalse(l.contains(Integer.valueOf(42)));
+	}
+
+	@Test
+	public void testListApi() {
+		CreateOnWriteLongList l = getListNull();
+		for (long i = 0; i < 10; i++) {
+			l.add(Long.valueOf(i));
+		}
+		assertSame(l, _list);
+		assertEquals(10, l.size());
+		l.addLong(0, -1);
+		assertEquals(-1, l.getLong(0));
+		assertEquals(9, l.getLong(10));
+		assertEquals(Long.valueOf(5), l.remove(6));
+		assertTrue(l.removeLong(-1));
+		assertEquals(0, l.setLong(0, 100));
+		assertEquals(100, l.getLong(0));
+		assertEquals(9, l.size());
+		assertTrue(Arrays.equals(new long[] { 100, 1, 2, 3, 4, 6, 7, 8, 9 }, l.toLongArray()));
+		assertTrue(l.addAll(2, Arrays.asList(20L, 21L)));
+		assertEquals(Arrays.asList(100L, 1L, 20L, 21L, 2L, 3L, 4L, 6L, 7L, 8L, 9L), l);
+		assertEquals(l, Arrays.asList(100L, 1L, 20L, 21L, 2L, 3L, 4L, 6L, 7L, 8L, 9L));
+		assertEquals(Arrays.asList(100L, 1L, 20L, 21L, 2L, 3L, 4L, 6L, 7L, 8L, 9L).hashCode(), l.hashCode());
+		l.addLong(1);
+		assertEquals(1, l.indexOfLong(1));
+		assertEquals(11, l.lastIndexOfLong(1));
+		l.trimToSize();
+		assertEquals(12, l.size());
+
+		Iterator<Long> it = l.iterator();
+		while (it.hasNext()) {
+			if (it.next().longValue() > 10) {
+				it.remove();
+			}
+		}
+		assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 6L, 7L, 8L, 9L, 1L), l);
+		List<Long> sub = l.subList(1, 3);
+		assertEquals(Arrays.asList(2L, 3L), sub);
+		l.clear();
+		assertTrue(l.isEmpty());
+	}
+
+	@Test
+	public void testAddAllNullElement() {
+		CreateOnWriteLongList l = getListNull();
+		l.addLong(1);
+		l.addLong(2);
+		try {
+			l.addAll(1, Arrays.asList(Long.valueOf(3), null));
+			fail("null element must be rejected");
+		} catch (NullPointerException e) {
+			// expected
+		}
+		assertTrue(Arrays.equals(new long[] { 1, 2 }, l.toLongArray()));
+	}
+
+	@Test
+	public void testAddAllSelf() {
+		CreateOnWriteLongList l = getListNull();
+		l.addLong(1);
+		l.addLong(2);
+		assertTrue(l.addAll(1, l));
+		assertTrue(Arrays.equals(new long[] { 1, 1, 2, 2 }, l.toLongArray()));
+		assertTrue(l.addAll(l));
+		assertEquals(8, l.size());
+	}
+
+	@Test
+	public void testEmptyListIteratorAdd() {
+		CreateOnWriteLongList l = getListNull();
+		ListIterator<Long> it = l.listIterator();
+		it.add(Long.valueOf(1));
+		it.add(Long.valueOf(2));
+		assertTrue(Arrays.equals(new long[] { 1, 2 }, l.toLongArray()));
+	}
+}
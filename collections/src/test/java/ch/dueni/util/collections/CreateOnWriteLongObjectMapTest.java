@@ -0,0 +1,122 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CreateOnWriteLongObjectMapTest {
+
+	// use _ prefix for better distinction with test local variables
+	private CreateOnWriteLongObjectMap<Boolean> _map;
+
+	public CreateOnWriteLongObjectMap<Boolean> getMapNull() {
+		if (_map == null) {
+			return new CreateOnWriteLongObjectMap<Boolean>() {
+				@Override
+				public void newMap() {
+					_map = this;
+				}
+			};
+		}
+		return _map;
+	}
+
+	@Before
+	public void beforeTest() {
+		_map = null;
+	}
+
+	@Test
+	public void testNullMap() {
+		CreateOnWriteLongObjectMap<Boolean> m = getMapNull();
+		assertTrue(m.isEmpty());
+		m.clear(); // no exception expected
+		assertFalse(m.containsKey(1L));
+		assertFalse(m.containsKey(Long.valueOf(1)));
+		assertFalse(m.containsKey("1"));
+		assertFalse(m.containsValue(Boolean.TRUE));
+		assertEquals(0, m.entrySet().size());
+		assertNull(m.get(1L));
+		assertEquals(0, m.keySet().size());
+		assertNull(m.remove(1L));
+		assertEquals(0, m.size());
+		assertEquals(0, m.values().size());
+		assertEquals(0, m.keys().length);
+		assertNull(_map);
+	}
+
+	@Test
+	public void testNullMapPut() {
+		assertNull(getMapNull().put(5L, Boolean.TRUE));
+		assertNotNull(_map);
+		CreateOnWriteLongObjectMap<Boolean> m = getMapNull();
+		assertSame(_map, m);
+		assertEquals(Boolean.TRUE, m.get(5L));
+		assertEquals(Boolean.TRUE, m.get(Long.valueOf(5)));
+		assertEquals(Boolean.TRUE, m.put(Long.valueOf(5), Boolean.FALSE));
+		assertEquals(1, m.size());
+	}
+
+	@Test
+	public void testSortedStorage() {
+		CreateOnWriteLongObjectMap<Boolean> m = getMapNull();
+		Map<Long, Boolean> expected = new HashMap<Long, Boolean>();
+		long[] ids = { 42, -7, 1000000000000L, 0, 3, 17, 5, Long.MIN_VALUE, Long.MAX_VALUE };
+		for (long id : ids) {
+			m.put(id, Boolean.valueOf(id % 2 == 0));
+			expected.put(id, Boolean.valueOf(id % 2 == 0));
+		}
+		assertEquals(ids.length, m.size());
+		assertEquals(expected, m);
+		assertEquals(m, expected);
+		assertEquals(expected.hashCode(), m.hashCode());
+		long[] sorted = ids.clone();
+		Arrays.sort(sorted);
+		assertTrue(Arrays.equals(sorted, m.keys()));
+
+		assertEquals(Boolean.FALSE, m.remove(3L));
+		assertNull(m.remove(3L));
+		assertFalse(m.containsKey(3L));
+		assertTrue(m.containsKey(17L));
+		m.trimToSize();
+		assertEquals(ids.length - 1, m.size());
+		m.put(3L, null);
+		assertTrue(m.containsKey(3L));
+		assertTrue(m.containsValue(null));
+
+		for (Iterator<Map.Entry<Long, Boolean>> it = m.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<Long, Boolean> e = it.next();
+			if (e.getValue() == null || !e.getValue().booleanValue()) {
+				it.remove();
+			} else {
+				e.setValue(Boolean.FALSE);
+			}
+		}
+		assertTrue(Arrays.equals(new long[] { Long.MIN_VALUE, 0, 42, 1000000000000L }, m.keys()));
+		assertFalse(m.containsValue(Boolean.TRUE));
+		m.clear();
+		assertTrue(m.isEmpty());
+	}
+}
@@ -20,6 +20,7 @@ import static org.junit.Assert.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -93,6 +94,9 @@ public class CreateOnWriteMapTest {
 		assertNull(m.remove("a"));
 		assertEquals(0, m.size());
 		assertEquals(0, m.values().size());
+		assertTrue(m.equals(new HashMap<String, String>()));
+		assertEquals(0, m.hashCode());
+		assertEquals("{}", m.toString());
 	}
 
 	@Test
@@ -225,4 +229,122 @@ public class CreateOnWriteMapTest {
 
 	}
 
+	@Test
+	public void testReleaseWhenEmpty() {
+		Map<String, String> m = new CreateOnWriteMap<String, String>() {
+			@Override
+			public Map<String, String> newMap() {
+				_map = new HashMap<String, String>(2);
+				return _map;
+			}
+
+			@Override
+			protected boolean isReleaseWhenEmpty() {
+				return true;
+			}
+		};
+		m.put("K", "V");
+		Map<String, String> first = _map;
+		assertEquals("V", m.remove("K"));
+		m.put("K", "W");
+		assertNotSame(first, _map);
+		assertTrue(first.isEmpty());
+		m.clear();
+		m.put("L", "X");
+		assertEquals(1, _map.size());
+		assertEquals("X", m.get("L"));
+	}
+
+	@Test
+	public void testOwnerWriteAfterRelease() {
+		Map<String, String> m = new CreateOnWriteMap<String, String>() {
+			@Override
+			public Map<String, String> newMap() {
+				_map = new HashMap<String, String>(2);
+				return _map;
+			}
+
+			@Override
+			protected boolean isReleaseWhenEmpty() {
+				return true;
+			}
+		};
+		m.put("K", "V");
+		m.remove("K");
+		_map.put("O", "owner");
+		assertEquals("owner", m.get("O"));
+		m.put("W", "wrapper");
+		assertEquals(2, _map.size());
+		assertEquals("owner", _map.get("O"));
+	}
+
+	@Test
+	public void testKeepWhenEmptyByDefault() {
+		Map<String, String> m = getMapNull();
+		m.put("K", "V");
+		Map<String, String> first = _map;
+		m.clear();
+		m.put("K", "W");
+		assertSame(first, _map);
+	}
+
+	@Test
+	public void testOfAssigner() {
+		Map<String, String> m = CreateOnWriteMap.of(new CollectionAssigner<Map<String, String>>() {
+			@Override
+			public void assign(Map<String, String> created) {
+				_map = created;
+			}
+		});
+		assertTrue(m.isEmpty());
+		assertNull(_map);
+		m.put("K", "V");
+		assertTrue(_map instanceof HashMap);
+		assertEquals("V", _map.get("K"));
+	}
+
+	@Test
+	public void testOfFactory() {
+		Map<String, String> m = CreateOnWriteMap.of(new CollectionFactory<Map<String, String>>() {
+			@Override
+			public Map<String, String> create() {
+				return new TreeMap<String, String>();
+			}
+		}, new CollectionAssigner<Map<String, String>>() {
+			@Override
+			public void assign(Map<String, String> created) {
+				_map = created;
+			}
+		});
+		m.put("B", "2");
+		m.put("A", "1");
+		assertTrue(_map instanceof TreeMap);
+		assertEquals("A", _map.keySet().iterator().next());
+	}
+
+	@Test
+	public void testOfNullAssigner() {
+		try {
+			CreateOnWriteMap.of(null);
+			fail("NullPointerException expected");
+		} catch (NullPointerException e) {
+			assertEquals("assigner must not be null", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testOfNullFactory() {
+		try {
+			CreateOnWriteMap.of(null, new CollectionAssigner<Map<String, String>>() {
+				@Override
+				public void assign(Map<String, String> created) {
+					_map = created;
+				}
+			});
+			fail("NullPointerException expected");
+		} catch (NullPointerException e) {
+			assertEquals("factory must not be null", e.getMessage());
+		}
+	}
+
 }
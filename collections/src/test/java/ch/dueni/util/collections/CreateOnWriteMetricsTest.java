@@ -0,0 +1,164 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CreateOnWriteMetricsTest {
+
+	// use _ prefix for better distinction with test local variables
+	private List<String> _list;
+
+	private Map<String, String> _map;
+
+	public List<String> getList() {
+		if (_list == null) {
+			return new CreateOnWriteList<String>() {
+				@Override
+				public List<String> newList() {
+					_list = new ArrayList<String>(1);
+					return _list;
+				}
+			};
+		}
+		return _list;
+	}
+
+	public Map<String, String> getMap() {
+		if (_map == null) {
+			return new CreateOnWriteMap<String, String>() {
+				@Override
+				public Map<String, String> newMap() {
+					_map = new HashMap<String, String>(2);
+					return _map;
+				}
+			};
+		}
+		return _map;
+	}
+
+	@Before
+	public void beforeTest() {
+		_list = null;
+		_map = null;
+		CreateOnWriteMetrics.getInstance().reset();
+		CreateOnWriteMetrics.enable();
+	}
+
+	@After
+	public void afterTest() {
+		CreateOnWriteMetrics.disable();
+		CreateOnWriteMetrics.getInstance().reset();
+	}
+
+	@Test
+	public void testCountPerOwner() {
+		for (int i = 0; i < 10; i++) {
+			assertTrue(getList().isEmpty());
+			assertTrue(getMap().isEmpty());
+		}
+		getList().add("a");
+		getList().add("b");
+		getMap().put("K", "V");
+
+		CreateOnWriteMetrics metrics = CreateOnWriteMetrics.getInstance();
+		assertEquals(22, metrics.getCreated());
+		assertEquals(2, metrics.getMaterialized());
+		List<OwnerStatistics> owners = metrics.getOwners();
+		assertEquals(1, owners.size());
+		OwnerStatistics owner = owners.get(0);
+		assertEquals(getClass().getName(), owner.getOwnerClass());
+		assertEquals(2, owner.getLiveDelegates());
+		assertEquals(CreateOnWriteMetrics.estimateBytes(_list)
+				+ CreateOnWriteMetrics.estimateBytes(_map), owner.getEstimatedDelegateBytes());
+		assertTrue(owner.getAverageTimeToFirstWriteMillis() >= 0);
+	}
+
+	@Test
+	public void testCollectedDelegatesExpungedWithoutPolling() {
+		for (int i = 0; i < 10; i++) {
+			_list = null;
+			getList().add("a");
+		}
+		Set<Reference<Object>> tracked = CreateOnWriteMetrics.getInstance().trackedDelegates(getClass());
+		assertEquals(10, tracked.size());
+		// enqueue as the garbage collector does for collected delegates
+		for (Reference<Object> ref : tracked) {
+			ref.enqueue();
+		}
+		_list = null;
+		getList().add("a");
+		assertEquals(1, tracked.size());
+	}
+
+	@Test
+	public void testOwnerOfFactoryBuilt() {
+		CreateOnWriteList.of(new CollectionAssigner<List<String>>() {
+			@Override
+			public void assign(List<String> created) {
+				_list = created;
+			}
+		}).add("a");
+		OwnerStatistics owner = CreateOnWriteMetrics.getInstance().getOwners().get(0);
+		assertEquals(getClass().getName(), owner.getOwnerClass());
+		assertEquals(1, owner.getCreated());
+		assertEquals(1, owner.getMaterialized());
+	}
+
+	@Test
+	public void testDisabled() {
+		CreateOnWriteMetrics.disable();
+		getList().add("a");
+		assertEquals(0, CreateOnWriteMetrics.getInstance().getCreated());
+		assertEquals(0, CreateOnWriteMetrics.getInstance().getMaterialized());
+	}
+
+	@Test
+	public void testMXBean() throws Exception {
+		getList().add("a");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(CreateOnWriteMetrics.OBJECT_NAME);
+		assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+		assertEquals(Long.valueOf(1), server.getAttribute(name, "Materialized"));
+		CompositeData[] owners = (CompositeData[])server.getAttribute(name, "Owners");
+		assertEquals(1, owners.length);
+		assertEquals(getClass().getName(), owners[0].get("ownerClass"));
+		assertNotNull(owners[0].get("averageTimeToFirstWriteMillis"));
+		server.invoke(name, "reset", null, null);
+		assertEquals(Long.valueOf(0), server.getAttribute(name, "Created"));
+	}
+
+}
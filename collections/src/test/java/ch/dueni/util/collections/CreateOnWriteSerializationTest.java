@@ -0,0 +1,175 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Serialize session-like owning objects to verify the compact serial form of the create-on-write
+ * collections and to measure the bytes written per session.
+ */
+public class CreateOnWriteSerializationTest {
+
+	/**
+	 * Session object using create-on-write members (test nr 4 style).
+	 */
+	static class LazySession implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		List<String> list = new CreateOnWriteList<String>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public List<String> newList() {
+				list = new ArrayList<String>(1);
+				return list;
+			}
+		};
+
+		Map<String, String> map = new CreateOnWriteMap<String, String>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Map<String, String> newMap() {
+				map = new HashMap<String, String>(2);
+				return map;
+			}
+		};
+
+		Map<String, String> small = new InlineCreateOnWriteMap<String, String>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Map<String, String> newMap() {
+				small = new HashMap<String, String>();
+				return small;
+			}
+		};
+	}
+
+	/**
+	 * Session object using eagerly created members.
+	 */
+	static class EagerSession implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		List<String> list = new ArrayList<String>();
+
+		Map<String, String> map = new HashMap<String, String>();
+
+		Map<String, String> small = new HashMap<String, String>();
+	}
+
+	@Test
+	public void testEmptyRoundTrip() throws Exception {
+		LazySession session = roundTrip(new LazySession());
+		assertTrue(session.list instanceof CreateOnWriteList);
+		assertTrue(session.map instanceof CreateOnWriteMap);
+		assertTrue(session.small instanceof InlineCreateOnWriteMap);
+		assertTrue(session.list.isEmpty());
+		assertTrue(session.map.isEmpty());
+		assertTrue(session.small.isEmpty());
+
+		// deserialized instances are still writable
+		session.list.add("a");
+		session.map.put("a", "a");
+		session.small.put("a", "a");
+		assertEquals("a", session.list.get(0));
+		assertEquals("a", session.map.get("a"));
+		assertEquals("a", session.small.get("a"));
+
+		session = roundTrip(session);
+		assertEquals("a", session.list.get(0));
+		assertEquals("a", session.map.get("a"));
+		assertEquals("a", session.small.get("a"));
+	}
+
+	@Test
+	public void testPopulatedRoundTrip() throws Exception {
+		LazySession session = new LazySession();
+		List<String> kept = session.list;
+		session.list.add("a");
+		session.map.put("a", "a");
+		session.small.put("a", "1");
+		session.small.put("b", "2");
+		assertTrue(session.list instanceof ArrayList);
+		assertTrue(session.small instanceof InlineCreateOnWriteMap);
+
+		Object[] read = roundTrip(new Object[] { session, kept });
+		session = (LazySession)read[0];
+		assertEquals(1, session.list.size());
+		assertEquals("a", session.map.get("a"));
+		assertEquals(2, session.small.size());
+		assertEquals("2", session.small.get("b"));
+		assertTrue(session.small instanceof InlineCreateOnWriteMap);
+		// a kept CreateOnWriteList is written as the list it wraps
+		assertSame(session.list, read[1]);
+	}
+
+	@Test
+	public void testSerializedBytesPerSession() throws Exception {
+		int sessions = 100;
+		List<LazySession> lazy = new ArrayList<LazySession>();
+		List<EagerSession> eager = new ArrayList<EagerSession>();
+		for (int i = 0; i < sessions; i++) {
+			lazy.add(new LazySession());
+			eager.add(new EagerSession());
+		}
+		int lazyBytes = serialize(lazy).length;
+		int eagerBytes = serialize(eager).length;
+		assertTrue("create-on-write " + lazyBytes + " bytes, eager " + eagerBytes,
+				lazyBytes < eagerBytes);
+		// the owning object is written once per session and each empty member adds a small block
+		assertTrue("create-on-write bytes per session " + lazyBytes / sessions,
+				lazyBytes / sessions < 60);
+	}
+
+	// === private methods ===
+
+	private static byte[] serialize(Object o) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(o);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T o) throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(o)));
+		try {
+			return (T)in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+}
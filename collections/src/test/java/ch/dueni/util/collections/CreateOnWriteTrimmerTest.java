@@ -0,0 +1,213 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CreateOnWriteTrimmerTest {
+
+	// use _ prefix for better distinction with test local variables
+	private List<String> _list;
+
+	private Map<String, String> _map;
+
+	public List<String> getList() {
+		if (_list == null) {
+			return new CreateOnWriteList<String>() {
+				@Override
+				public List<String> newList() {
+					_list = new ArrayList<String>(1);
+					return _list;
+				}
+			};
+		}
+		return _list;
+	}
+
+	@Before
+	public void beforeTest() {
+		_list = null;
+		_map = null;
+	}
+
+	@Test
+	public void testNull() {
+		assertNull(CreateOnWriteTrimmer.trim((List<String>)null));
+		assertNull(CreateOnWriteTrimmer.trim((Map<String, String>)null));
+	}
+
+	@Test
+	public void testReleaseEmptyList() {
+		for (int i = 0; i < 100; i++) {
+			getList().add("v" + i);
+		}
+		getList().clear();
+		_list = CreateOnWriteTrimmer.trim(_list);
+		assertNull(_list);
+		assertTrue(getList().isEmpty());
+		getList().add("a");
+		assertEquals(1, _list.size());
+	}
+
+	@Test
+	public void testKeepNonEmptyList() {
+		getList().add("a");
+		List<String> list = _list;
+		assertSame(list, CreateOnWriteTrimmer.trim(_list));
+		assertEquals("a", list.get(0));
+	}
+
+	@Test
+	public void testPresetCreateOnWriteListKept() {
+		final List<List<String>> created = new ArrayList<List<String>>();
+		CreateOnWriteList<String> list = new CreateOnWriteList<String>() {
+			@Override
+			public List<String> newList() {
+				List<String> real = new ArrayList<String>(1);
+				created.add(real);
+				return real;
+			}
+		};
+		list.add("a");
+		list.remove("a");
+		assertSame(list, CreateOnWriteTrimmer.trim(list));
+		list.add("b");
+		assertEquals(2, created.size());
+		assertTrue(created.get(0).isEmpty());
+		assertSame(list, CreateOnWriteTrimmer.trim(list));
+		assertEquals("b", list.get(0));
+	}
+
+	@Test
+	public void testOwnerWriteAfterTrimRelease() {
+		CreateOnWriteList<String> list = new CreateOnWriteList<String>() {
+			@Override
+			public List<String> newList() {
+				_list = new ArrayList<String>(1);
+				return _list;
+			}
+		};
+		list.add("a");
+		list.remove("a");
+		List<String> first = _list;
+		assertSame(list, CreateOnWriteTrimmer.trim(list));
+		assertNotSame(first, _list);
+		_list.add("owner");
+		assertEquals(1, list.size());
+		list.add("wrapper");
+		assertEquals(2, _list.size());
+		assertEquals("owner", list.get(0));
+	}
+
+	@Test
+	public void testMapOwnerWriteAfterTrimRelease() {
+		CreateOnWriteMap<String, String> map = new CreateOnWriteMap<String, String>() {
+			@Override
+			public Map<String, String> newMap() {
+				_map = new HashMap<String, String>(2);
+				return _map;
+			}
+		};
+		map.put("K", "V");
+		map.remove("K");
+		assertSame(map, CreateOnWriteTrimmer.trim(map));
+		_map.put("O", "owner");
+		assertEquals("owner", map.get("O"));
+		map.put("W", "wrapper");
+		assertEquals(2, _map.size());
+		assertEquals("owner", _map.get("O"));
+	}
+
+	@Test
+	public void testTrimPrimitiveList() {
+		CreateOnWriteIntList list = new CreateOnWriteIntList() {
+			@Override
+			public void newList() {
+			}
+		};
+		for (int i = 0; i < 100; i++) {
+			list.addInt(i);
+		}
+		while (list.size() > 70) {
+			list.removeIntAt(list.size() - 1);
+		}
+		int capacity = list.capacity();
+		assertSame(list, CreateOnWriteTrimmer.trim(list));
+		assertEquals(capacity, list.capacity());
+		while (list.size() > 10) {
+			list.removeIntAt(list.size() - 1);
+		}
+		assertSame(list, CreateOnWriteTrimmer.trim(list));
+		assertEquals(10, list.capacity());
+		assertEquals(9, list.getInt(9));
+	}
+
+	@Test
+	public void testTrimLongObjectMap() {
+		CreateOnWriteLongObjectMap<String> longMap = new CreateOnWriteLongObjectMap<String>() {
+			@Override
+			public void newMap() {
+			}
+		};
+		for (long k = 0; k < 64; k++) {
+			longMap.put(k, "v" + k);
+		}
+		for (long k = 3; k < 64; k++) {
+			longMap.remove(k);
+		}
+		assertSame(longMap, CreateOnWriteTrimmer.trim(longMap));
+		assertEquals(3, longMap.capacity());
+		assertEquals("v2", longMap.get(2L));
+	}
+
+	@Test
+	public void testCopyHashMap() {
+		Map<String, String> map = new HashMap<String, String>();
+		for (int i = 0; i < 100; i++) {
+			map.put("k" + i, "v" + i);
+		}
+		map.keySet().retainAll(Collections.singleton("k1"));
+		Map<String, String> trimmed = CreateOnWriteTrimmer.trim(map);
+		assertNotSame(map, trimmed);
+		assertEquals(map, trimmed);
+		map.clear();
+		assertNull(CreateOnWriteTrimmer.trim(map));
+	}
+
+	@Test
+	public void testKeepOtherMap() {
+		Map<String, String> map = new TreeMap<String, String>();
+		map.put("k", "v");
+		assertSame(map, CreateOnWriteTrimmer.trim(map));
+	}
+
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InlineCreateOnWriteMapTest {
+
+	// use _ prefix for better distinction with test local variables
+	private Map<String, String> _map;
+
+	private int newMapCalls;
+
+	public Map<String, String> getMap() {
+		if (_map == null) {
+			_map = new InlineCreateOnWriteMap<String, String>(3) {
+				@Override
+				public Map<String, String> newMap() {
+					newMapCalls++;
+					_map = new HashMap<String, String>();
+					return _map;
+				}
+			};
+		}
+		return _map;
+	}
+
+	@Before
+	public void beforeTest() {
+		_map = null;
+		newMapCalls = 0;
+	}
+
+	@Test
+	public void testEmptyReadApi() {
+		Map<String, String> m = getMap();
+		assertTrue(m.isEmpty());
+		m.clear(); // no exception expected
+		assertFalse(m.containsKey("a"));
+		assertFalse(m.containsValue("a"));
+		assertEquals(0, m.entrySet().size());
+		assertNull(m.get("a"));
+		assertEquals(0, m.keySet().size());
+		assertNull(m.remove("a"));
+		assertEquals(0, m.size());
+		assertEquals(0, m.values().size());
+		assertEquals(new HashMap<String, String>(), m);
+		assertEquals("{}", m.toString());
+		assertEquals(0, newMapCalls);
+	}
+
+	@Test
+	public void testPutInline() {
+		assertNull(getMap().put("a", "1"));
+		assertNull(getMap().put("b", "2"));
+		assertNull(getMap().put(null, "3"));
+		assertEquals("1", getMap().put("a", "11"));
+		Map<String, String> m = getMap();
+		assertTrue(m instanceof InlineCreateOnWriteMap);
+		assertEquals(0, newMapCalls);
+		assertEquals(3, m.size());
+		assertEquals("11", m.get("a"));
+		assertEquals("2", m.get("b"));
+		assertEquals("3", m.get(null));
+		assertTrue(m.containsKey(null));
+		assertTrue(m.containsValue("2"));
+		assertFalse(m.containsValue("1"));
+
+		Map<String, String> expected = new HashMap<String, String>();
+		expected.put("a", "11");
+		expected.put("b", "2");
+		expected.put(null, "3");
+		assertEquals(expected, m);
+		assertEquals(m, expected);
+		assertEquals(expected.hashCode(), m.hashCode());
+		assertEquals(expected.keySet(), m.keySet());
+		assertEquals(expected.entrySet(), m.entrySet());
+	}
+
+	@Test
+	public void testPromoteOnThreshold() {
+		getMap().put("a", "1");
+		getMap().put("b", "2");
+		getMap().put("c", "3");
+		assertTrue(_map instanceof InlineCreateOnWriteMap);
+		Map<String, String> inline = getMap();
+		assertNull(getMap().put("d", "4"));
+		assertEquals(1, newMapCalls);
+		assertTrue(_map instanceof HashMap);
+		assertEquals(4, _map.size());
+		assertEquals("1", _map.get("a"));
+		assertEquals("4", _map.get("d"));
+		// kept instance now delegates to the real map
+		assertTrue(inline.equals(_map));
+		assertEquals(4, inline.size());
+		inline.put("e", "5");
+		assertEquals("5", _map.get("e"));
+		assertEquals(1, newMapCalls);
+	}
+
+	@Test
+	public void testPutAllPromotes() {
+		Map<String, String> arg = new HashMap<String, String>();
+		arg.put("a", "a");
+		arg.put("b", "b");
+		getMap().put("c", "c");
+		getMap().putAll(arg);
+		assertEquals(0, newMapCalls);
+		arg.put("d", "d");
+		getMap().putAll(arg);
+		assertEquals(1, newMapCalls);
+		assertTrue(_map instanceof HashMap);
+		assertEquals(4, _map.size());
+	}
+
+	@Test
+	public void testRemove() {
+		Map<String, String> m = getMap();
+		m.put("a", "1");
+		m.put("b", "2");
+		m.put("c", "3");
+		assertEquals("2", m.remove("b"));
+		assertNull(m.remove("b"));
+		assertEquals(2, m.size());
+		assertEquals("1", m.get("a"));
+		assertEquals("3", m.get("c"));
+		m.clear();
+		assertTrue(m.isEmpty());
+		assertEquals(0, newMapCalls);
+	}
+
+	@Test
+	public void testIteratorRemoveAndSetValue() {
+		Map<String, String> m = getMap();
+		m.put("a", "1");
+		m.put("b", "2");
+		m.put("c", "3");
+		for (Iterator<Map.Entry<String, String>> it = m.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<String, String> e = it.next();
+			if ("b".equals(e.getKey())) {
+				it.remove();
+			} else {
+				e.setValue(e.getValue() + e.getValue());
+			}
+		}
+		assertEquals(2, m.size());
+		assertEquals("11", m.get("a"));
+		assertEquals("33", m.get("c"));
+		Iterator<String> keys = m.keySet().iterator();
+		keys.next();
+		keys.remove();
+		keys.next();
+		keys.remove();
+		assertFalse(keys.hasNext());
+		assertTrue(m.isEmpty());
+	}
+
+	@Test
+	public void testPutAllOverlappingKeysStaysInline() {
+		Map<String, String> m = getMap();
+		m.put("a", "1");
+		m.put("b", "2");
+		Map<String, String> arg = new HashMap<String, String>();
+		arg.put("a", "11");
+		arg.put("b", "22");
+		arg.put("c", "33");
+		m.putAll(arg);
+		assertEquals(0, newMapCalls);
+		assertSame(m, _map);
+		assertEquals(3, m.size());
+		assertEquals("11", m.get("a"));
+		assertEquals("33", m.get("c"));
+	}
+
+	@Test
+	public void testEntryKeptAcrossRemove() {
+		Map<String, String> m = getMap();
+		m.put("a", "1");
+		m.put("b", "2");
+		m.put("c", "3");
+		Iterator<Map.Entry<String, String>> it = m.entrySet().iterator();
+		Map.Entry<String, String> a = it.next();
+		Map.Entry<String, String> b = it.next();
+		Map.Entry<String, String> c = it.next();
+		m.remove("a");
+		assertEquals("b", b.getKey());
+		assertEquals("2", b.getValue());
+		assertEquals("3", c.setValue("33"));
+		assertEquals("33", m.get("c"));
+		assertEquals("2", m.get("b"));
+		// a removed entry keeps its last value and does not write into the map
+		assertEquals("1", a.getValue());
+		assertEquals("1", a.setValue("11"));
+		assertFalse(m.containsKey("a"));
+		m.remove("b");
+		m.remove("c");
+		assertTrue(m.isEmpty());
+		assertEquals("2", b.getValue());
+		assertEquals("33", c.getValue());
+	}
+
+	@Test
+	public void testEntryKeptAcrossPromotion() {
+		Map<String, String> m = getMap();
+		m.put("a", "1");
+		Map.Entry<String, String> a = m.entrySet().iterator().next();
+		m.put("b", "2");
+		m.put("c", "3");
+		m.put("d", "4");
+		assertEquals(1, newMapCalls);
+		assertEquals("1", a.setValue("11"));
+		assertEquals("11", _map.get("a"));
+		assertEquals("11", m.get("a"));
+		_map.put("a", "111");
+		assertEquals("111", a.getValue());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeThreshold() {
+		new InlineCreateOnWriteMap<String, String>(-1) {
+			@Override
+			public Map<String, String> newMap() {
+				return new HashMap<String, String>();
+			}
+		};
+	}
+}
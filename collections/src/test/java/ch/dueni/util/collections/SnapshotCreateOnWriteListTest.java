@@ -0,0 +1,163 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.dueni.util.collections;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class SnapshotCreateOnWriteListTest {
+
+	@Test
+	public void testEmptyReadApi() {
+		List<String> l = new SnapshotCreateOnWriteList<String>();
+		l.clear(); // no exception expected
+		assertFalse(l.contains("a"));
+		assertTrue(l.containsAll(new ArrayList<String>()));
+		assertFalse(l.containsAll(getCollection()));
+		assertEquals(-1, l.indexOf("a"));
+		assertTrue(l.isEmpty());
+		assertFalse(l.iterator().hasNext());
+		assertEquals(-1, l.lastIndexOf("a"));
+		assertFalse(l.listIterator().hasNext());
+		assertFalse(l.listIterator(0).hasPrevious());
+		assertFalse(l.remove("a"));
+		assertFalse(l.removeAll(getCollection()));
+		assertFalse(l.retainAll(getCollection()));
+		assertEquals(0, l.size());
+		assertTrue(l.subList(0, 0).isEmpty());
+		assertEquals(0, l.toArray().length);
+		assertEquals(0, l.toArray(new String[0]).length);
+		assertEquals(new ArrayList<String>(), l);
+		assertEquals("[]", l.toString());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testEmptyGet() {
+		new SnapshotCreateOnWriteList<String>().get(0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testEmptyListIterator() {
+		new SnapshotCreateOnWriteList<String>().listIterator(1);
+	}
+
+	@Test
+	public void testListApi() {
+		SnapshotCreateOnWriteList<String> l = new SnapshotCreateOnWriteList<String>();
+		assertTrue(l.addAll(getCollection()));
+		l.add(0, "0");
+		l.add("d");
+		assertFalse(l.addIfAbsent("a"));
+		assertTrue(l.addIfAbsent("e"));
+		assertEquals(Arrays.asList("0", "a", "b", "c", "d", "e"), l);
+		assertEquals(Arrays.asList("0", "a", "b", "c", "d", "e").hashCode(), l.hashCode());
+		assertEquals("a", l.set(1, "A"));
+		assertEquals("0", l.remove(0));
+		assertTrue(l.remove("e"));
+		assertTrue(l.addAll(1, Arrays.asList("x", "y")));
+		assertEquals(Arrays.asList("A", "x", "y", "b", "c", "d"), l);
+		assertEquals(Arrays.asList("x", "y"), l.subList(1, 3));
+		assertTrue(l.removeAll(Arrays.asList("x", "y")));
+		assertTrue(l.retainAll(Arrays.asList("A", "c")));
+		assertEquals(Arrays.asList("A", "c"), l);
+		assertEquals(1, l.lastIndexOf("c"));
+		assertNull(l.toArray(new String[5])[2]);
+		ListIterator<String> it = l.listIterator(2);
+		assertEquals("c", it.previous());
+		assertEquals("A", it.previous());
+		assertFalse(it.hasPrevious());
+		l.clear();
+		assertTrue(l.isEmpty());
+	}
+
+	@Test
+	public void testSnapshotIteration() {
+		List<String> l = new SnapshotCreateOnWriteList<String>(getCollection());
+		Iterator<String> it = l.iterator();
+		// mutate while iterating - no ConcurrentModificationException, snapshot unchanged
+		for (String s : l) {
+			l.remove(s);
+			l.add(s + s);
+		}
+		assertEquals(Arrays.asList("aa", "bb", "cc"), l);
+		assertEquals("a", it.next());
+		assertEquals("b", it.next());
+		assertEquals("c", it.next());
+		assertFalse(it.hasNext());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testIteratorRemove() {
+		Iterator<String> it = new SnapshotCreateOnWriteList<String>(getCollection()).iterator();
+		it.next();
+		it.remove();
+	}
+
+	@Test
+	public void testConcurrentIterationAndMutation() throws Exception {
+		final List<Integer> l = new SnapshotCreateOnWriteList<Integer>();
+		final CountDownLatch done = new CountDownLatch(1);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread reader = new Thread() {
+			@Override
+			public void run() {
+				try {
+					while (done.getCount() > 0) {
+						int last = -1;
+						for (Integer i : l) {
+							// elements are always added in ascending order and removed from the head
+							assertTrue(i.intValue() > last);
+							last = i.intValue();
+						}
+					}
+				} catch (Throwable t) {
+					failure.set(t);
+				}
+			}
+		};
+		reader.start();
+		for (int i = 0; i < 20000; i++) {
+			l.add(Integer.valueOf(i));
+			if (l.size() > 10) {
+				l.remove(0);
+			}
+		}
+		done.countDown();
+		reader.join();
+		assertNull(failure.get());
+		assertEquals(10, l.size());
+	}
+
+	// === private methods ===
+
+	private List<String> getCollection() {
+		List<String> c = new ArrayList<String>();
+		c.add("a");
+		c.add("b");
+		c.add("c");
+		return c;
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2013 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.dueni.prefs.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.InvalidPreferencesFormatException;
+import java.util.prefs.Preferences;
+import java.util.prefs.PreferencesFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.dueni.prefs.PreferencesCodec;
+import ch.dueni.prefs.PreferencesContext;
+import ch.dueni.prefs.XmlFilePreferences;
+import ch.dueni.prefs.XmlFilePreferencesFactory;
+
+/**
+ * Compares loading and storing a user preferences tree with {@link PreferencesCodec#XML} and
+ * {@link PreferencesCodec#BINARY}, in memory to measure the formats and not the disk. Loading reads
+ * into a new user root like a login does.
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar PreferencesCodecBenchmark
+ * </pre>
+ * 
+ * @author hampidu@gmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PreferencesCodecBenchmark {
+
+	@Param({ "10", "200" })
+	public int nodes;
+
+	@Param({ "20" })
+	public int keysPerNode;
+
+	private String storePath;
+
+	private XmlFilePreferences tree;
+
+	private byte[] xml;
+
+	private byte[] binary;
+
+	@Setup
+	public void setup() throws IOException, BackingStoreException {
+		System.setProperty(PreferencesFactory.class.getName(), XmlFilePreferencesFactory.class
+				.getName());
+		// empty, so new roots load nothing before the benchmark reads into them
+		storePath = Files.createTempDirectory("prefs-bench").toString();
+		tree = newUserRoot();
+		for (int n = 0; n < nodes; n++) {
+			Preferences node = tree.node("app" + (n % 7) + "/view" + n);
+			for (int k = 0; k < keysPerNode; k++) {
+				node.put("column" + k + ".width", Integer.toString(80 + k));
+			}
+			node.put("title", "Ansicht Nr. " + n + " für Benutzer");
+		}
+		xml = write(PreferencesCodec.XML);
+		binary = write(PreferencesCodec.BINARY);
+	}
+
+	@Benchmark
+	public Preferences readXml() throws IOException, InvalidPreferencesFormatException {
+		return read(PreferencesCodec.XML, xml);
+	}
+
+	@Benchmark
+	public Preferences readBinary() throws IOException, InvalidPreferencesFormatException {
+		return read(PreferencesCodec.BINARY, binary);
+	}
+
+	@Benchmark
+	public byte[] writeXml() throws IOException, BackingStoreException {
+		return write(PreferencesCodec.XML);
+	}
+
+	@Benchmark
+	public byte[] writeBinary() throws IOException, BackingStoreException {
+		return write(PreferencesCodec.BINARY);
+	}
+
+	private Preferences read(PreferencesCodec codec, byte[] content) throws IOException,
+			InvalidPreferencesFormatException {
+		XmlFilePreferences root = newUserRoot();
+		codec.read(new ByteArrayInputStream(content), root);
+		return root;
+	}
+
+	private byte[] write(PreferencesCodec codec) throws IOException, BackingStoreException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(xml == null ? 8192 : xml.length);
+		codec.write(tree, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Create a new user root in a new session, loaded from the empty store path.
+	 */
+	private XmlFilePreferences newUserRoot() {
+		PreferencesContext ctx = new PreferencesContext();
+		ctx.setAppScope(new HashMap<String, Object>());
+		ctx.setUserScope(new HashMap<String, Object>());
+		ctx.setUserName("benchmark");
+		ctx.setStorePath(storePath);
+		PreferencesContext.setCurrentInstance(ctx);
+		XmlFilePreferences root = XmlFilePreferences.getUserRoot();
+		try {
+			root.keys();
+		} catch (BackingStoreException e) {
+			throw new IllegalStateException(e);
+		}
+		return root;
+	}
+
+}
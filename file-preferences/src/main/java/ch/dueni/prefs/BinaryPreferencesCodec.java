@@ -0,0 +1,109 @@
+/**
+ * Copyright 2013 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.dueni.prefs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.InvalidPreferencesFormatException;
+import java.util.prefs.Preferences;
+
+/**
+ * <code>BinaryPreferencesCodec</code> stores the trees in a compact format read and written in one
+ * pass. After the magic number 'DPF1' the nodes follow depth first, each as
+ * 
+ * <pre>
+ * name, number of keys, [key, value]..., number of children, [child node]...
+ * </pre>
+ * 
+ * with the numbers as int and the Strings as written by {@link DataOutputStream#writeUTF(String)}.
+ * The lengths of names, keys and values allowed by {@link Preferences} fit that easily.
+ * 
+ * @author hampidu@gmail.com
+ */
+public class BinaryPreferencesCodec extends PreferencesCodec {
+
+	/** 'DPF1' */
+	static final int MAGIC = 0x44504631;
+
+	@Override
+	public String getFileSuffix() {
+		return ".prefs";
+	}
+
+	@Override
+	public void write(Preferences root, OutputStream out) throws IOException, BackingStoreException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 8192));
+		data.writeInt(MAGIC);
+		writeNode(root, data);
+		data.flush();
+	}
+
+	private void writeNode(Preferences node, DataOutputStream data) throws IOException,
+			BackingStoreException {
+		data.writeUTF(node.name());
+		String[] keys = node.keys();
+		String[] values = new String[keys.length];
+		int count = 0;
+		for (int i = 0; i < keys.length; i++) {
+			values[i] = node.get(keys[i], null);
+			if (values[i] != null) {
+				count++;
+			}
+		}
+		data.writeInt(count);
+		for (int i = 0; i < keys.length; i++) {
+			// null if removed since keys() was called
+			if (values[i] != null) {
+				data.writeUTF(keys[i]);
+				data.writeUTF(values[i]);
+			}
+		}
+		String[] children = node.childrenNames();
+		data.writeInt(children.length);
+		for (String child : children) {
+			writeNode(node.node(child), data);
+		}
+	}
+
+	@Override
+	public void read(InputStream in, Preferences root) throws IOException,
+			InvalidPreferencesFormatException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in, 8192));
+		if (data.readInt() != MAGIC) {
+			throw new InvalidPreferencesFormatException("not a binary preferences file");
+		}
+		// the name of the root is not used
+		data.readUTF();
+		readNode(root, data);
+	}
+
+	private void readNode(Preferences node, DataInputStream data) throws IOException {
+		for (int keys = data.readInt(); keys > 0; keys--) {
+			String key = data.readUTF();
+			node.put(key, data.readUTF());
+		}
+		for (int children = data.readInt(); children > 0; children--) {
+			readNode(node.node(data.readUTF()), data);
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2013 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.dueni.prefs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.InvalidPreferencesFormatException;
+import java.util.prefs.Preferences;
+
+/**
+ * <code>PreferencesCodec</code> defines the format a preferences tree is stored in by
+ * {@link XmlFilePreferences}. {@link #XML} is the Java Preferences XML format and the default,
+ * {@link #BINARY} a compact length-prefixed format read and written in one pass without building a
+ * DOM. Other formats can be plugged in by subclassing.
+ * 
+ * @author hampidu@gmail.com
+ */
+public abstract class PreferencesCodec {
+
+	/** the Java Preferences XML format of {@link Preferences#exportSubtree(OutputStream)} */
+	public static final PreferencesCodec XML = new XmlPreferencesCodec();
+
+	/** the compact format of {@link BinaryPreferencesCodec} */
+	public static final PreferencesCodec BINARY = new BinaryPreferencesCodec();
+
+	/**
+	 * Return the codec of the name, as used by the servlet filter and the converter.
+	 * 
+	 * @param name
+	 *          "xml", "binary" or the class name of a subclass with a public default constructor.
+	 * @return the codec.
+	 * @throws IllegalArgumentException
+	 *           if the codec cannot be created.
+	 */
+	public static PreferencesCodec forName(String name) {
+		if ("xml".equalsIgnoreCase(name)) {
+			return XML;
+		}
+		if ("binary".equalsIgnoreCase(name)) {
+			return BINARY;
+		}
+		try {
+			return (PreferencesCodec)Class.forName(name).newInstance();
+		} catch (Exception e) {
+			throw new IllegalArgumentException("unknown preferences codec: " + name, e);
+		}
+	}
+
+	/**
+	 * @return the suffix of the store files including the dot, e.g. ".xml".
+	 */
+	public abstract String getFileSuffix();
+
+	/**
+	 * Write the tree with all its nodes and keys.
+	 * 
+	 * @param root
+	 *          the root of the tree.
+	 * @param out
+	 *          the stream to write to, flushed but not closed.
+	 */
+	public abstract void write(Preferences root, OutputStream out) throws IOException,
+			BackingStoreException;
+
+	/**
+	 * Read the nodes and keys from the stream into the tree.
+	 * 
+	 * @param in
+	 *          the stream to read, not closed.
+	 * @param root
+	 *          the root of the tree to read into.
+	 */
+	public abstract void read(InputStream in, Preferences root) throws IOException,
+			InvalidPreferencesFormatException;
+
+}
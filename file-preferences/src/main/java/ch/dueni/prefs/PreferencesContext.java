@@ -2,6 +2,7 @@ package ch.dueni.prefs;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.prefs.BackingStoreException;
@@ -29,6 +30,8 @@ public class PreferencesContext {
 
 	private boolean writable = true;
 
+	private PreferencesCodec codec;
+
 	public static PreferencesContext getCurrentInstance() {
 		PreferencesContext current = instance.get();
 		if (current == null) {
@@ -41,6 +44,13 @@ public class PreferencesContext {
 		instance.set(currentInstance);
 	}
 
+	/**
+	 * @return the context of the current thread or <code>null</code> if not initialized.
+	 */
+	static PreferencesContext peekCurrentInstance() {
+		return instance.get();
+	}
+
 	public static void cleanup() {
 		PreferencesContext ctx = instance.get();
 		if (ctx != null) {
@@ -53,12 +63,42 @@ public class PreferencesContext {
 		// if a flush() call notified to save, store to backing store before reset PreferencesContext
 		if (!getToSave().isEmpty()) {
 			for (XmlFilePreferences.Root root : getToSave()) {
-				XmlFilePreferences.storePreferencesTree(root);
+				if (!PreferencesWriter.enqueue(this, root)) {
+					XmlFilePreferences.storePreferencesTree(root);
+				}
 			}
 			getToSave().clear();
 		}
 	}
 
+	/**
+	 * Return a context for the {@link PreferencesWriter} writing the trees of this context later on
+	 * another thread. It only holds the preferences roots of the scopes, the scopes themselves may
+	 * not be usable any more by then.
+	 * 
+	 * @return a copy of this context with private scopes.
+	 */
+	PreferencesContext copyForWriter() {
+		PreferencesContext copy = new PreferencesContext();
+		copy.setAppScope(copyRoot(appScope));
+		copy.setUserScope(copyRoot(userScope));
+		copy.setStorePath(storePath);
+		copy.setUserName(userName);
+		copy.setReadable(readable);
+		copy.setWritable(writable);
+		copy.setCodec(codec);
+		return copy;
+	}
+
+	private static Map<String, Object> copyRoot(Map<String, Object> scope) {
+		Map<String, Object> copy = new HashMap<String, Object>(4);
+		Object root = (scope == null) ? null : scope.get(XmlFilePreferences.SCOPE_PREFERENCES_KEY);
+		if (root != null) {
+			copy.put(XmlFilePreferences.SCOPE_PREFERENCES_KEY, root);
+		}
+		return copy;
+	}
+
 	public void setAppScope(Map<String, Object> appScope) {
 		this.appScope = appScope;
 	}
@@ -100,6 +140,24 @@ public class PreferencesContext {
 		}
 	}
 
+	/**
+	 * Set the format to store the preferences trees in.
+	 * 
+	 * @param codec
+	 *          the format or <code>null</code> for {@link PreferencesCodec#XML}.
+	 */
+	public void setCodec(PreferencesCodec codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * @return the format to store the preferences trees in, {@link PreferencesCodec#XML} if not
+	 *         set.
+	 */
+	public PreferencesCodec getCodec() {
+		return (codec != null) ? codec : PreferencesCodec.XML;
+	}
+
 	public List<XmlFilePreferences.Root> getToSave() {
 		if (toSave == null) {
 			return Collections.emptyList();
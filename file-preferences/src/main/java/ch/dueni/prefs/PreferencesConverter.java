@@ -0,0 +1,136 @@
+/**
+ * Copyright 2013 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.dueni.prefs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.PreferencesFactory;
+
+import ch.dueni.prefs.XmlFilePreferences.Root;
+
+/**
+ * <code>PreferencesConverter</code> converts the store files of a store path from one
+ * {@link PreferencesCodec} format to another, including the changes of their journals. Run it
+ * before switching the format of an application, e.g. from XML to binary:
+ * 
+ * <pre>
+ * java -cp file-preferences.jar ch.dueni.prefs.PreferencesConverter /temp/file-prefs xml binary
+ * </pre>
+ * 
+ * The source files and journals are kept. Without conversion the trees are loaded from the XML
+ * files and written in the new format on their next flush.
+ * 
+ * @author hampidu@gmail.com
+ */
+public final class PreferencesConverter {
+
+	private PreferencesConverter() {
+	}
+
+	/**
+	 * Command line entry point.
+	 * 
+	 * @param args
+	 *          the store path as configured for the servlet filter, the source and the target codec
+	 *          as accepted by {@link PreferencesCodec#forName(String)}.
+	 */
+	public static void main(String[] args) throws IOException, BackingStoreException {
+		if (args.length != 3) {
+			System.err.println("usage: PreferencesConverter <store path> <source codec> <target codec>");
+			System.exit(1);
+		}
+		String property = PreferencesFactory.class.getName();
+		if (System.getProperty(property) == null) {
+			System.setProperty(property, XmlFilePreferencesFactory.class.getName());
+		}
+		for (File file : convert(args[0], PreferencesCodec.forName(args[1]), PreferencesCodec
+				.forName(args[2]))) {
+			System.out.println("written " + file);
+		}
+	}
+
+	/**
+	 * Convert the store files of the store path. Reading XML files requires
+	 * {@link XmlFilePreferencesFactory} to be the {@link PreferencesFactory} of the JVM.
+	 * 
+	 * @param storePath
+	 *          the store path as configured for the servlet filter.
+	 * @param source
+	 *          the format of the files to convert.
+	 * @param target
+	 *          the format to write.
+	 * @return the files written.
+	 */
+	public static List<File> convert(String storePath, PreferencesCodec source,
+			PreferencesCodec target) throws IOException, BackingStoreException {
+		PreferencesContext base = new PreferencesContext();
+		base.setStorePath(storePath);
+		File[] files = XmlFilePreferences.storeDir(base).listFiles();
+		List<File> written = new ArrayList<File>();
+		if (files == null) {
+			return written;
+		}
+		String prefix = XmlFilePreferences.FILE_NAME_PREFIX;
+		String suffix = source.getFileSuffix();
+		for (File file : files) {
+			String name = file.getName();
+			if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+				continue;
+			}
+			String tree = name.substring(prefix.length(), name.length() - suffix.length());
+			PreferencesContext ctx = new PreferencesContext();
+			ctx.setStorePath(storePath);
+			ctx.setAppScope(new HashMap<String, Object>());
+			ctx.setUserScope(new HashMap<String, Object>());
+			ctx.setCodec(source);
+			Root root;
+			if (tree.equals(Root.system.toString())) {
+				root = Root.system;
+			} else if (tree.startsWith(Root.user.toString() + "-")) {
+				root = Root.user;
+				ctx.setUserName(tree.substring(Root.user.toString().length() + 1));
+			} else {
+				continue;
+			}
+			written.add(convert(ctx, root, target));
+		}
+		return written;
+	}
+
+	private static File convert(PreferencesContext ctx, Root root, PreferencesCodec target)
+			throws IOException, BackingStoreException {
+		PreferencesContext previous = PreferencesContext.peekCurrentInstance();
+		PreferencesContext.setCurrentInstance(ctx);
+		try {
+			XmlFilePreferences prefs = Root.user == root ? XmlFilePreferences.getUserRoot()
+					: XmlFilePreferences.getSystemRoot();
+			// loads the file and replays the journal
+			prefs.keys();
+			File targetFile = XmlFilePreferences.storeFile(ctx, root, target);
+			synchronized (XmlFilePreferences.storeLock(targetFile)) {
+				XmlFilePreferences.writeStoreFile(prefs, targetFile, target);
+			}
+			return targetFile;
+		} finally {
+			PreferencesContext.setCurrentInstance(previous);
+		}
+	}
+
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2013 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.dueni.prefs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**
+ * <code>PreferencesJournal</code> reads and writes the change records appended to a preferences
+ * file between two full exports. A record is one line of tab separated, escaped fields in UTF-8:
+ * 
+ * <pre>
+ * D &lt;node path&gt;                            node removed
+ * S &lt;node path&gt; [&lt;key&gt; &lt;value&gt;]...    node created or changed, with all its keys
+ * </pre>
+ * 
+ * Both records describe the resulting state and not the operation, so replaying a record that is
+ * already contained in the exported file does no harm. Appended records are synced to disk, a last
+ * line without line end - cut off by a crash - is ignored and dropped by the next append.
+ * 
+ * @author hampidu@gmail.com
+ */
+final class PreferencesJournal {
+
+	private static final String ENCODING = "UTF-8";
+
+	private static final char REMOVED = 'D';
+
+	private static final char SNAPSHOT = 'S';
+
+	private PreferencesJournal() {
+	}
+
+	/**
+	 * @return the record of a removed node.
+	 */
+	static String removed(String path) {
+		StringBuilder record = new StringBuilder(path.length() + 2).append(REMOVED);
+		appendField(record, path);
+		return record.toString();
+	}
+
+	/**
+	 * @return the record of a node with all its keys and values.
+	 */
+	static String snapshot(String path, Map<String, String> values) {
+		StringBuilder record = new StringBuilder(64).append(SNAPSHOT);
+		appendField(record, path);
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			appendField(record, entry.getKey());
+			appendField(record, entry.getValue());
+		}
+		return record.toString();
+	}
+
+	/**
+	 * Append the records to the journal file, creating it if needed, and sync it to disk. A last line
+	 * without line end is cut off first, it would otherwise be merged with the first appended record.
+	 */
+	static void append(File journal, List<String> records) throws IOException {
+		StringBuilder lines = new StringBuilder(records.size() * 64);
+		for (String record : records) {
+			lines.append(record).append('\n');
+		}
+		RandomAccessFile file = new RandomAccessFile(journal, "rw");
+		try {
+			long end = endOfLastRecord(file);
+			if (end < file.length()) {
+				file.setLength(end);
+			}
+			file.seek(end);
+			file.write(lines.toString().getBytes(ENCODING));
+			file.getFD().sync();
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * @return the file position after the last line end, 0 if there is none.
+	 */
+	private static long endOfLastRecord(RandomAccessFile file) throws IOException {
+		byte[] buf = new byte[512];
+		long pos = file.length();
+		while (pos > 0) {
+			int read = (int)Math.min(buf.length, pos);
+			pos -= read;
+			file.seek(pos);
+			file.readFully(buf, 0, read);
+			for (int i = read - 1; i >= 0; i--) {
+				if (buf[i] == '\n') {
+					return pos + i + 1;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Apply the records of the journal file to the preferences tree, lines that are no valid record
+	 * and a last line without line end are skipped.
+	 * 
+	 * @param journal
+	 *          the journal file, may not exist.
+	 * @param root
+	 *          the root of the tree the journal was written for.
+	 */
+	static void replay(File journal, Preferences root) throws IOException, BackingStoreException {
+		if (!journal.isFile()) {
+			return;
+		}
+		String content;
+		Reader in = new InputStreamReader(new FileInputStream(journal), ENCODING);
+		try {
+			StringBuilder sb = new StringBuilder((int)Math.min(journal.length(), Integer.MAX_VALUE));
+			char[] buf = new char[8192];
+			int read;
+			while ((read = in.read(buf)) > 0) {
+				sb.append(buf, 0, read);
+			}
+			content = sb.toString();
+		} finally {
+			in.close();
+		}
+		int start = 0;
+		int end;
+		while ((end = content.indexOf('\n', start)) >= 0) {
+			String line = content.substring(start, end);
+			start = end + 1;
+			List<String> fields = parseFields(line);
+			if (fields == null || fields.isEmpty()) {
+				continue;
+			}
+			String path = fields.get(0);
+			if (line.charAt(0) == REMOVED) {
+				if (!"/".equals(path) && root.nodeExists(path)) {
+					root.node(path).removeNode();
+				}
+			} else if (line.charAt(0) == SNAPSHOT && fields.size() % 2 == 1) {
+				Preferences node = root.node(path);
+				node.clear();
+				for (int i = 1; i < fields.size(); i += 2) {
+					node.put(fields.get(i), fields.get(i + 1));
+				}
+			}
+		}
+	}
+
+	private static void appendField(StringBuilder record, String value) {
+		record.append('\t');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '\t':
+				record.append("\\t");
+				break;
+			case '\n':
+				record.append("\\n");
+				break;
+			case '\r':
+				record.append("\\r");
+				break;
+			case '\\':
+				record.append("\\\\");
+				break;
+			default:
+				record.append(c);
+			}
+		}
+	}
+
+	/**
+	 * @return the unescaped fields after the record type or <code>null</code> if the line is
+	 *         malformed.
+	 */
+	static List<String> parseFields(String line) {
+		if (line.length() < 2 || line.charAt(1) != '\t') {
+			return null;
+		}
+		List<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		for (int i = 2; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '\t') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\\') {
+				if (++i == line.length()) {
+					return null;
+				}
+				switch (line.charAt(i)) {
+				case 't':
+					field.append('\t');
+					break;
+				case 'n':
+					field.append('\n');
+					break;
+				case 'r':
+					field.append('\r');
+					break;
+				case '\\':
+					field.append('\\');
+					break;
+				default:
+					return null;
+				}
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright 2013 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.dueni.prefs;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import ch.dueni.prefs.XmlFilePreferences.Root;
+
+/**
+ * <code>PreferencesWriter</code> writes flushed preferences trees behind the requests: once
+ * started, {@link PreferencesContext#saveToBackingStore()} only queues the trees to write and a
+ * daemon thread writes each at most the configured delay after its first flush. Further flushes
+ * of the same tree within that delay are written together.
+ * <p>
+ * A tree about to be loaded from a file with a pending write is written first, so changes are
+ * never read back stale. {@link #stop()} writes all pending trees before it returns, the servlet
+ * filter calls it on destroy.
+ * </p>
+ * 
+ * @author hampidu@gmail.com
+ */
+public final class PreferencesWriter implements Runnable {
+
+	/** the running writer, <code>null</code> while writing on the request threads */
+	private static volatile PreferencesWriter instance;
+
+	private final long delay;
+
+	private final Thread thread;
+
+	/** the pending writes by store file path in order of their first flush */
+	private final Map<String, PendingWrite> pending = new LinkedHashMap<String, PendingWrite>();
+
+	/** the store file paths written right now */
+	private final Set<String> writing = new HashSet<String>();
+
+	private boolean stopped;
+
+	private PreferencesWriter(long delay) {
+		this.delay = delay;
+		thread = new Thread(this, "PreferencesWriter");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Write flushed trees behind the requests from now on.
+	 * 
+	 * @param delayMillis
+	 *          the maximum time in milliseconds a flushed tree waits for more flushes before it is
+	 *          written.
+	 */
+	public static synchronized void start(long delayMillis) {
+		if (delayMillis < 0) {
+			throw new IllegalArgumentException("delay must not be negative: " + delayMillis);
+		}
+		if (instance == null) {
+			PreferencesWriter writer = new PreferencesWriter(delayMillis);
+			writer.thread.start();
+			instance = writer;
+		}
+	}
+
+	/**
+	 * Write all pending trees and write on the request threads again.
+	 */
+	public static synchronized void stop() {
+		PreferencesWriter writer = instance;
+		if (writer != null) {
+			instance = null;
+			synchronized (writer.pending) {
+				writer.stopped = true;
+				writer.pending.notifyAll();
+			}
+			boolean interrupted = false;
+			while (writer.thread.isAlive()) {
+				try {
+					writer.thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if flushed trees are written behind the requests.
+	 */
+	public static boolean isStarted() {
+		return instance != null;
+	}
+
+	/**
+	 * Queue the tree of the context to be written.
+	 * 
+	 * @return <code>false</code> if not started, the caller has to write the tree itself.
+	 */
+	static boolean enqueue(PreferencesContext ctx, Root root) {
+		PreferencesWriter writer = instance;
+		if (writer == null) {
+			return false;
+		}
+		String key = XmlFilePreferences.ensureStoreFile(ctx, root).getAbsolutePath();
+		PreferencesContext writeContext = ctx.copyForWriter();
+		synchronized (writer.pending) {
+			if (writer.stopped) {
+				return false;
+			}
+			PendingWrite write = writer.pending.get(key);
+			if (write == null) {
+				write = new PendingWrite(root, System.currentTimeMillis() + writer.delay);
+				writer.pending.put(key, write);
+				writer.pending.notifyAll();
+			}
+			write.context = writeContext;
+		}
+		return true;
+	}
+
+	/**
+	 * @return <code>true</code> if a write to the store file is queued or running.
+	 */
+	static boolean isPending(File storeFile) {
+		PreferencesWriter writer = instance;
+		if (writer == null) {
+			return false;
+		}
+		String key = storeFile.getAbsolutePath();
+		synchronized (writer.pending) {
+			return writer.pending.containsKey(key) || writer.writing.contains(key);
+		}
+	}
+
+	/**
+	 * Write the pending write to the store file on the calling thread, or wait for the writer
+	 * thread to complete it, before the file is read.
+	 */
+	static void writePending(File storeFile) {
+		PreferencesWriter writer = instance;
+		if (writer == null) {
+			return;
+		}
+		String key = storeFile.getAbsolutePath();
+		PendingWrite write;
+		synchronized (writer.pending) {
+			boolean interrupted = false;
+			while (writer.writing.contains(key)) {
+				try {
+					writer.pending.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			write = writer.pending.remove(key);
+			if (write == null) {
+				return;
+			}
+			writer.writing.add(key);
+		}
+		writer.write(key, write);
+	}
+
+	public void run() {
+		while (true) {
+			String key;
+			PendingWrite write;
+			synchronized (pending) {
+				while (true) {
+					Iterator<Map.Entry<String, PendingWrite>> first = pending.entrySet().iterator();
+					if (!first.hasNext()) {
+						if (stopped) {
+							return;
+						}
+						waitForChange(0);
+						continue;
+					}
+					Map.Entry<String, PendingWrite> entry = first.next();
+					long wait = entry.getValue().due - System.currentTimeMillis();
+					if (wait <= 0 || stopped) {
+						key = entry.getKey();
+						write = entry.getValue();
+						first.remove();
+						writing.add(key);
+						break;
+					}
+					waitForChange(wait);
+				}
+			}
+			write(key, write);
+		}
+	}
+
+	/**
+	 * Wait on the pending writes, interrupting the writer stops it after writing the pending trees.
+	 */
+	private void waitForChange(long timeout) {
+		try {
+			pending.wait(timeout);
+		} catch (InterruptedException e) {
+			stopped = true;
+		}
+	}
+
+	/**
+	 * Write the tree with the context captured on flush, the write is registered as running.
+	 */
+	private void write(String key, PendingWrite write) {
+		PreferencesContext previous = PreferencesContext.peekCurrentInstance();
+		PreferencesContext.setCurrentInstance(write.context);
+		try {
+			XmlFilePreferences.storePreferencesTree(write.root);
+		} finally {
+			PreferencesContext.setCurrentInstance(previous);
+			synchronized (pending) {
+				writing.remove(key);
+				pending.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * A tree waiting to be written.
+	 */
+	private static class PendingWrite {
+
+		private final Root root;
+
+		/** the time to write at the latest */
+		private final long due;
+
+		/** the context of the last flush */
+		private PreferencesContext context;
+
+		private PendingWrite(Root root, long due) {
+			this.root = root;
+			this.due = due;
+		}
+
+	}
+
+}
@@ -15,12 +15,21 @@
  */
 package ch.dueni.prefs;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.prefs.AbstractPreferences;
 import java.util.prefs.BackingStoreException;
@@ -30,6 +39,23 @@ import java.util.prefs.Preferences;
  * <code>JsfXmlPreferences</code> implements {@link Preferences} handling systemRoot on application
  * scope and userRoot on session scope persisting to one XML file per preferences tree (1 systemRoot
  * tree and 1 userRoot tree per user).
+ * <p>
+ * The nodes changed since the last flush are tracked on the root. A flush appends their state to a
+ * journal file next to the XML file instead of exporting the whole tree again, only once the
+ * journal grew larger than the XML file the tree is exported and the journal deleted. Loading
+ * imports the XML file and replays the journal on top of it.
+ * </p>
+ * <p>
+ * The XML file is exported to a temporary file, synced to disk and then moved in place atomically,
+ * so a crash or a concurrent read never sees a half-written file. The replaced file is kept as
+ * previous generation and loaded instead if the XML file cannot be read.
+ * </p>
+ * <p>
+ * The format of the files is defined by the {@link PreferencesCodec} of the
+ * {@link PreferencesContext}, XML by default. A tree without file in the configured format is
+ * loaded from its XML file and written in the configured format on next flush, or converted up
+ * front by {@link PreferencesConverter}.
+ * </p>
  * 
  * @author hampidu@gmail.com
  */
@@ -46,9 +72,43 @@ public class XmlFilePreferences extends AbstractPreferences {
 	// to trigger load on first access to childrenNamesSpi() or keysSpi() on Root Preferences this is set to true in setRoot() method 
 	private boolean loaded = true;  
 
-	private static final String FILE_NAME_PREFIX = "JsfXmlPreferences-";
+	static final String FILE_NAME_PREFIX = "JsfXmlPreferences-";
 
-	private static final String FILE_NAME_SUFFIX = ".xml";
+	private static final String JOURNAL_SUFFIX = ".journal";
+
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private static final String PREVIOUS_SUFFIX = ".previous";
+
+	/**
+	 * Locks serializing the writes to the same store file, striped by file path so the trees of
+	 * different users are written in parallel without keeping a lock per user.
+	 */
+	private static final Object[] STORE_LOCKS = new Object[64];
+
+	static {
+		for (int i = 0; i < STORE_LOCKS.length; i++) {
+			STORE_LOCKS[i] = new Object();
+		}
+	}
+
+	/** the root node of the tree of this node */
+	private final XmlFilePreferences treeRoot;
+
+	/**
+	 * The changed and removed nodes by path in order of their first change, only set on the root
+	 * node.
+	 */
+	private Map<String, NodeChange> changes;
+
+	/** false while loading the tree from the files */
+	private volatile boolean tracking;
+
+	/**
+	 * true if the changes taken from the root could not be written to the journal, the next flush
+	 * then exports the full tree; guarded by the lock of the store file
+	 */
+	private boolean exportPending;
 
 	public enum Root {
 		system, user
@@ -56,6 +116,7 @@ public class XmlFilePreferences extends AbstractPreferences {
 
 	protected XmlFilePreferences(XmlFilePreferences parent, String name) {
 		super(parent, name);
+		treeRoot = (parent == null) ? this : parent.treeRoot;
 	}
 
 	private void ensureLoadedSilent() {
@@ -80,6 +141,8 @@ public class XmlFilePreferences extends AbstractPreferences {
 	void setRoot(Root root) {
 		this.root = root;
 		loaded = false;
+		changes = new LinkedHashMap<String, NodeChange>();
+		tracking = true;
 	}
 
 	Root getRoot() {
@@ -92,6 +155,7 @@ public class XmlFilePreferences extends AbstractPreferences {
 			valueMap = new HashMap<String, String>();
 		}
 		valueMap.put(key, value);
+		markChanged();
 	}
 
 	@Override
@@ -105,11 +169,13 @@ public class XmlFilePreferences extends AbstractPreferences {
 		if (valueMap != null) {
 			valueMap.remove(key);
 		}
+		markChanged();
 	}
 
 	@Override
 	protected void removeNodeSpi() throws BackingStoreException {
 		((XmlFilePreferences)parent()).childPrefs.remove(this.name());
+		markRemoved();
 	}
 
 	@Override
@@ -145,10 +211,102 @@ public class XmlFilePreferences extends AbstractPreferences {
 		if (child == null) {
 			child = new XmlFilePreferences(this, name);
 			childPrefs.put(name, child);
+			child.markChanged();
 		}
 		return child;
 	}
 
+	/**
+	 * Record this node as changed to write its keys on next flush.
+	 */
+	private void markChanged() {
+		XmlFilePreferences top = treeRoot;
+		if (top.changes == null || !top.tracking) {
+			return;
+		}
+		synchronized (top.changes) {
+			String path = absolutePath();
+			NodeChange change = top.changes.get(path);
+			if (change == null) {
+				change = new NodeChange();
+				top.changes.put(path, change);
+			}
+			change.node = this;
+		}
+	}
+
+	/**
+	 * Record this node as removed, which replaces the changes recorded for its descendants.
+	 */
+	private void markRemoved() {
+		XmlFilePreferences top = treeRoot;
+		if (top.changes == null || !top.tracking) {
+			return;
+		}
+		synchronized (top.changes) {
+			String path = absolutePath();
+			String prefix = path + "/";
+			for (Iterator<String> i = top.changes.keySet().iterator(); i.hasNext();) {
+				if (i.next().startsWith(prefix)) {
+					i.remove();
+				}
+			}
+			NodeChange change = top.changes.get(path);
+			if (change == null) {
+				change = new NodeChange();
+				top.changes.put(path, change);
+			}
+			change.removed = true;
+			change.node = null;
+		}
+	}
+
+	/**
+	 * Return the journal records of the nodes changed since the last call and forget them. The keys
+	 * are read after releasing the change tracking lock, as the nodes lock before tracking changes,
+	 * and under the lock of each node to not see a key removed meanwhile without its value.
+	 * 
+	 * @return the journal records in order of the changes.
+	 */
+	private List<String> takeChanges() throws BackingStoreException {
+		List<Map.Entry<String, NodeChange>> taken;
+		synchronized (changes) {
+			taken = new ArrayList<Map.Entry<String, NodeChange>>(changes.entrySet());
+			changes.clear();
+		}
+		List<String> records = new ArrayList<String>(taken.size() + 4);
+		for (Map.Entry<String, NodeChange> entry : taken) {
+			String path = entry.getKey();
+			NodeChange change = entry.getValue();
+			if (change.removed) {
+				records.add(PreferencesJournal.removed(path));
+			}
+			if (change.node != null) {
+				try {
+					Map<String, String> values = new LinkedHashMap<String, String>();
+					synchronized (change.node.lock) {
+						for (String key : change.node.keys()) {
+							values.put(key, change.node.get(key, null));
+						}
+					}
+					records.add(PreferencesJournal.snapshot(path, values));
+				} catch (IllegalStateException e) {
+					// removed meanwhile, recorded with the next flush
+				}
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Forget the changes recorded so far, they are contained in the next full export.
+	 */
+	private void clearChanges() {
+		synchronized (changes) {
+			changes.clear();
+		}
+	}
+
 	@Override
 	public void sync() throws BackingStoreException {
 		XmlFilePreferences p = this;
@@ -159,7 +317,7 @@ public class XmlFilePreferences extends AbstractPreferences {
 		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
 
 		Root type = p.getRoot();
-		if (ctx.getToSave().contains(type)) {
+		if (ctx.getToSave().contains(type) || PreferencesWriter.isPending(ensureStoreFile(ctx, type))) {
 			// flush() pending on this root, abort sync() to not lose not-yet saved changes 
 			return;
 		}
@@ -198,27 +356,91 @@ public class XmlFilePreferences extends AbstractPreferences {
 		//storePreferencesTree(type);
 	}
 
-	public synchronized static void storePreferencesTree(Root root) {
+	/**
+	 * Write the changes of the tree of the current context to its store file. Only writes to the
+	 * same file wait for each other, the trees of different users are written in parallel.
+	 * 
+	 * @param root
+	 *          the tree to write.
+	 */
+	public static void storePreferencesTree(Root root) {
 		try {
 			PreferencesContext ctx = PreferencesContext.getCurrentInstance();
 			File storeFile = ensureStoreFile(ctx, root);
+			File journalFile = journalFile(ctx, root);
 			XmlFilePreferences prefs =
 					Root.user == root ? XmlFilePreferences.getUserRoot() : XmlFilePreferences.getSystemRoot();
-			if (!storeFile.canWrite()) {
-				storeFile.setWritable(true);
-			}
-			if (!storeFile.exists()) {
-				storeFile.createNewFile();
+			synchronized (storeLock(storeFile)) {
+				storePreferencesTree(prefs, storeFile, journalFile, ctx.getCodec());
 			}
-			FileOutputStream os = new FileOutputStream(storeFile);
-			prefs.exportSubtree(os);
-			os.flush();
-			os.close();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Write the changes of the tree to the store file, the caller holds the lock of the file. The
+	 * changes are taken from the tree before writing, if they cannot be appended to the journal the
+	 * full tree is exported instead - now or, if that fails too, with the next flush.
+	 */
+	private static void storePreferencesTree(XmlFilePreferences prefs, File storeFile,
+			File journalFile, PreferencesCodec codec) throws IOException, BackingStoreException {
+		if (storeFile.exists() && !prefs.exportPending) {
+			// set until the taken changes are in the journal, any failure exports the full tree
+			prefs.exportPending = true;
+			try {
+				List<String> records = prefs.takeChanges();
+				if (!records.isEmpty()) {
+					PreferencesJournal.append(journalFile, records);
+				}
+				prefs.exportPending = false;
+				if (journalFile.length() < storeFile.length()) {
+					return;
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		} else {
+			prefs.clearChanges();
+		}
+		// compact: export the full tree, the journal is contained afterwards
+		prefs.exportPending = true;
+		writeStoreFile(prefs, storeFile, codec);
+		journalFile.delete();
+		prefs.exportPending = false;
+	}
+
+	/**
+	 * Write the full tree to the store file atomically, the caller holds the lock of the file.
+	 */
+	static void writeStoreFile(XmlFilePreferences prefs, File storeFile, PreferencesCodec codec)
+			throws IOException, BackingStoreException {
+		File tempFile = sideFile(storeFile, TEMP_SUFFIX);
+		FileOutputStream fos = new FileOutputStream(tempFile);
+		try {
+			OutputStream os = new BufferedOutputStream(fos);
+			codec.write(prefs, os);
+			os.flush();
+			fos.getFD().sync();
+		} finally {
+			fos.close();
+		}
+		// while the store file is moved away, loading falls back to the previous file and journal
+		if (storeFile.exists()) {
+			move(storeFile, sideFile(storeFile, PREVIOUS_SUFFIX));
+		}
+		move(tempFile, storeFile);
+	}
+
+	private static void move(File source, File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
 	@Override
 	protected void flushSpi() throws BackingStoreException {
 		throw new UnsupportedOperationException(
@@ -257,17 +479,49 @@ public class XmlFilePreferences extends AbstractPreferences {
 		}
 		try {
 			File storeFile = ensureStoreFile(ctx, root);
-
-			if (storeFile.canRead()) {
-				InputStream in = new FileInputStream(storeFile);
-				Preferences.importPreferences(in);
+			// a tree written behind must be on disk before it is read again
+			PreferencesWriter.writePending(storeFile);
+			XmlFilePreferences prefs = Root.user == root ? getUserRoot() : getSystemRoot();
+			PreferencesCodec codec = ctx.getCodec();
+			prefs.tracking = false;
+			try {
+				boolean imported = importFile(prefs, storeFile, codec)
+						|| importFile(prefs, sideFile(storeFile, PREVIOUS_SUFFIX), codec);
+				if (!imported && codec != PreferencesCodec.XML) {
+					// not converted yet, written in the format of the codec on next flush
+					File xmlFile = storeFile(ctx, root, PreferencesCodec.XML);
+					if (!importFile(prefs, xmlFile, PreferencesCodec.XML)) {
+						importFile(prefs, sideFile(xmlFile, PREVIOUS_SUFFIX), PreferencesCodec.XML);
+					}
+				}
+				PreferencesJournal.replay(journalFile(ctx, root), prefs);
+			} finally {
+				prefs.tracking = true;
 			}
 		} catch (Exception x) {
 			x.printStackTrace();
 		}
 	}
 
-	private static File ensureStoreFile(PreferencesContext ctx, Root root) {
+	static File ensureStoreFile(PreferencesContext ctx, Root root) {
+		return storeFile(ctx, root, ctx.getCodec());
+	}
+
+	/**
+	 * @return the file storing the tree in the format of the codec.
+	 */
+	static File storeFile(PreferencesContext ctx, Root root, PreferencesCodec codec) {
+		return new File(storeDir(ctx), baseName(ctx, root) + codec.getFileSuffix());
+	}
+
+	/**
+	 * @return the journal file of the tree, shared by all formats.
+	 */
+	private static File journalFile(PreferencesContext ctx, Root root) {
+		return new File(storeDir(ctx), baseName(ctx, root) + JOURNAL_SUFFIX);
+	}
+
+	static File storeDir(PreferencesContext ctx) {
 		String storePath = ctx.getStorePath();
 		if (storePath == null) {
 			try {
@@ -280,16 +534,73 @@ public class XmlFilePreferences extends AbstractPreferences {
 		if (!storeDir.exists()) {
 			storeDir.mkdirs();
 		}
+		// TODO: copy initial state file into store-dir
+		return storeDir;
+	}
+
+	private static String baseName(PreferencesContext ctx, Root root) {
 		String name = root.toString();
 		if (root == Root.user) {
 			name = name + "-" + ctx.getUserName();
 		}
-		String fileName = FILE_NAME_PREFIX + name + FILE_NAME_SUFFIX;
-		File xmlFile = new File(storeDir, fileName);
-		if (!xmlFile.exists()) {
-			// TODO: copy initial state file into store-dir			
+		return FILE_NAME_PREFIX + name;
+	}
 
+	static Object storeLock(File storeFile) {
+		int hash = storeFile.getAbsolutePath().hashCode();
+		return STORE_LOCKS[(hash ^ (hash >>> 16)) & (STORE_LOCKS.length - 1)];
+	}
+
+	/**
+	 * Import the preferences of the file into the tree.
+	 * 
+	 * @return <code>false</code> if the file does not exist or cannot be read completely, in which
+	 *         case the tree is left empty.
+	 */
+	private static boolean importFile(XmlFilePreferences prefs, File file, PreferencesCodec codec) {
+		if (!file.canRead()) {
+			return false;
+		}
+		try {
+			InputStream in = new FileInputStream(file);
+			try {
+				codec.read(in, prefs);
+			} finally {
+				in.close();
+			}
+			return true;
+		} catch (Exception e) {
+			System.err.println("Cannot import preferences from " + file + ": " + e);
+			try {
+				// a streaming codec may have read part of the file
+				for (String child : prefs.childrenNames()) {
+					prefs.node(child).removeNode();
+				}
+				prefs.clear();
+			} catch (BackingStoreException bse) {
+				bse.printStackTrace();
+			}
+			return false;
 		}
-		return xmlFile;
+	}
+
+	/**
+	 * @return the file next to the store file with the suffix appended to its name.
+	 */
+	private static File sideFile(File storeFile, String suffix) {
+		return new File(storeFile.getParentFile(), storeFile.getName() + suffix);
+	}
+
+	/**
+	 * The change of a node since the last flush.
+	 */
+	private static class NodeChange {
+
+		/** true if the node was removed, a new node may have been created since */
+		private boolean removed;
+
+		/** the node to write the keys of, <code>null</code> if removed */
+		private XmlFilePreferences node;
+
 	}
 }
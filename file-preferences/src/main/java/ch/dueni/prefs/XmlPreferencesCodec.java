@@ -0,0 +1,54 @@
+/**
+ * Copyright 2013 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.dueni.prefs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.InvalidPreferencesFormatException;
+import java.util.prefs.Preferences;
+
+/**
+ * <code>XmlPreferencesCodec</code> stores the trees in the XML format of
+ * {@link Preferences#exportSubtree(OutputStream)}.
+ * 
+ * @author hampidu@gmail.com
+ */
+public class XmlPreferencesCodec extends PreferencesCodec {
+
+	@Override
+	public String getFileSuffix() {
+		return ".xml";
+	}
+
+	@Override
+	public void write(Preferences root, OutputStream out) throws IOException, BackingStoreException {
+		root.exportSubtree(out);
+		out.flush();
+	}
+
+	/**
+	 * Import the XML document, which names the tree it belongs to - the user or system root of the
+	 * current {@link PreferencesContext} - so the passed in root is not used.
+	 */
+	@Override
+	public void read(InputStream in, Preferences root) throws IOException,
+			InvalidPreferencesFormatException {
+		Preferences.importPreferences(in);
+	}
+
+}
@@ -12,7 +12,9 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 
+import ch.dueni.prefs.PreferencesCodec;
 import ch.dueni.prefs.PreferencesContext;
+import ch.dueni.prefs.PreferencesWriter;
 import ch.dueni.prefs.XmlFilePreferencesFactory;
 
 public class XmlFilePreferencesServletFilter implements Filter {
@@ -21,6 +23,8 @@ public class XmlFilePreferencesServletFilter implements Filter {
 
 	private String storePath;
 
+	private PreferencesCodec codec;
+
 	@Override
 	public void init(FilterConfig filterConfig) throws ServletException {
 		context = filterConfig.getServletContext();
@@ -28,6 +32,14 @@ public class XmlFilePreferencesServletFilter implements Filter {
 		if (storePath == null) {
 			storePath = "/temp/file-prefs";
 		}
+		// "xml" (default), "binary" or the class name of a PreferencesCodec
+		String codecName = context.getInitParameter("ch.dueni.prefs.STORAGE_CODEC");
+		codec = (codecName != null) ? PreferencesCodec.forName(codecName.trim()) : PreferencesCodec.XML;
+		// milliseconds a flushed tree may be written behind the request, not set to write at once
+		String writeBehind = context.getInitParameter("ch.dueni.prefs.WRITE_BEHIND_DELAY");
+		if (writeBehind != null) {
+			PreferencesWriter.start(Long.parseLong(writeBehind.trim()));
+		}
 		String property = PreferencesFactory.class.getName();
 		if (System.getProperty(property) == null) {
 			System.setProperty(property, XmlFilePreferencesFactory.class.getName());
@@ -44,6 +56,7 @@ public class XmlFilePreferencesServletFilter implements Filter {
 		prefsCtx.setUserScope(new SessionMap(httpReq.getSession()));
 		prefsCtx.setUserName(httpReq.getRemoteUser());
 		prefsCtx.setStorePath(storePath);
+		prefsCtx.setCodec(codec);
 		PreferencesContext.setCurrentInstance(prefsCtx);
 
 		// continue process request filter
@@ -54,7 +67,7 @@ public class XmlFilePreferencesServletFilter implements Filter {
 
 	@Override
 	public void destroy() {
-
+		PreferencesWriter.stop();
 	}
 
 }
@@ -0,0 +1,171 @@
+package ch.dueni.prefs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.prefs.Preferences;
+import java.util.prefs.PreferencesFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import ch.dueni.prefs.servlet.AppMap;
+import ch.dueni.prefs.servlet.SessionMap;
+
+public class PreferencesCodecTest {
+
+	@BeforeClass
+	public static void init() {
+		System.setProperty(PreferencesFactory.class.getName(), XmlFilePreferencesFactory.class.getName());
+	}
+
+	@Before
+	public void setup() {
+		PreferencesContext prefsCtx = new PreferencesContext();
+		prefsCtx.setAppScope(new AppMap(new TestServletContext()));
+		prefsCtx.setUserScope(new SessionMap(new TestHttpSession()));
+		prefsCtx.setUserName("B" + System.nanoTime());
+		File target = new File("target/prefs-test");
+		prefsCtx.setStorePath(target.getAbsolutePath());
+		PreferencesContext.setCurrentInstance(prefsCtx);
+	}
+
+	@After
+	public void tearDown() {
+		PreferencesContext.cleanup();
+	}
+
+	@Test
+	public void forName() {
+		assertSame(PreferencesCodec.XML, PreferencesCodec.forName("xml"));
+		assertSame(PreferencesCodec.BINARY, PreferencesCodec.forName("BINARY"));
+		assertTrue(PreferencesCodec.forName(XmlPreferencesCodec.class.getName()) instanceof XmlPreferencesCodec);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownCodec() {
+		PreferencesCodec.forName("yaml");
+	}
+
+	@Test
+	public void storeAndRetrieveBinary() throws Exception {
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		ctx.setCodec(PreferencesCodec.BINARY);
+		fill(Preferences.userRoot());
+		Preferences.userRoot().flush();
+		ctx.saveToBackingStore();
+		assertTrue(storeFile(ctx, ".prefs").isFile());
+		assertFalse(storeFile(ctx, ".xml").exists());
+
+		assertFilled(reload(ctx));
+	}
+
+	@Test
+	public void loadXmlWithBinaryCodec() throws Exception {
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		fill(Preferences.userRoot());
+		Preferences.userRoot().flush();
+		ctx.saveToBackingStore();
+		assertTrue(storeFile(ctx, ".xml").isFile());
+
+		ctx.setCodec(PreferencesCodec.BINARY);
+		Preferences root = reload(ctx);
+		assertFilled(root);
+		root.flush();
+		ctx.saveToBackingStore();
+		assertTrue(storeFile(ctx, ".prefs").isFile());
+		assertFilled(reload(ctx));
+	}
+
+	@Test
+	public void convert() throws Exception {
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		Preferences root = Preferences.userRoot();
+		fill(root);
+		root.flush();
+		ctx.saveToBackingStore();
+		root.node("codec").put("journaled", "yes");
+		root.flush();
+		ctx.saveToBackingStore();
+		assertTrue(storeFile(ctx, ".journal").isFile());
+
+		List<File> written = PreferencesConverter.convert(ctx.getStorePath(), PreferencesCodec.XML,
+				PreferencesCodec.BINARY);
+		assertTrue(written.contains(storeFile(ctx, ".prefs")));
+		assertTrue(storeFile(ctx, ".xml").isFile());
+
+		ctx.setCodec(PreferencesCodec.BINARY);
+		root = reload(ctx);
+		assertFilled(root);
+		assertEquals("yes", root.node("codec").get("journaled", null));
+	}
+
+	@Test
+	public void truncatedBinaryFallsBackToPrevious() throws Exception {
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		ctx.setCodec(PreferencesCodec.BINARY);
+		Preferences node = Preferences.userRoot().node("generation");
+		node.put("first", "1");
+		node.flush();
+		ctx.saveToBackingStore();
+		// larger than the binary file to write the second generation
+		for (int i = 0; i < 50; i++) {
+			node.node("second" + i).put("key", "2");
+		}
+		node.flush();
+		ctx.saveToBackingStore();
+		File prefs = storeFile(ctx, ".prefs");
+		assertTrue(storeFile(ctx, ".prefs.previous").isFile());
+		RandomAccessFile file = new RandomAccessFile(prefs, "rw");
+		try {
+			file.setLength(file.length() / 2);
+		} finally {
+			file.close();
+		}
+
+		node = reload(ctx).node("generation");
+		assertEquals("1", node.get("first", null));
+		assertFalse(node.nodeExists("second0"));
+	}
+
+	private void fill(Preferences root) {
+		Preferences node = root.node("codec");
+		node.put("plain", "value");
+		node.put("umlaut", "gr\u00fcezi \u20ac");
+		node.put("empty", "");
+		node.node("child").putInt("number", 42);
+		root.node("other").put("key", "other value");
+	}
+
+	private void assertFilled(Preferences root) throws Exception {
+		Preferences node = root.node("codec");
+		assertEquals("value", node.get("plain", null));
+		assertEquals("gr\u00fcezi \u20ac", node.get("umlaut", null));
+		assertEquals("", node.get("empty", null));
+		assertNull(node.get("missing", null));
+		assertEquals(42, node.node("child").getInt("number", -1));
+		assertEquals("other value", root.node("other").get("key", null));
+	}
+
+	/**
+	 * Load the user tree in a new session.
+	 */
+	private Preferences reload(PreferencesContext ctx) {
+		ctx.setUserScope(new SessionMap(new TestHttpSession()));
+		return Preferences.userRoot();
+	}
+
+	private File storeFile(PreferencesContext ctx, String suffix) {
+		return new File(new File(ctx.getStorePath(), "prefs-store"), "JsfXmlPreferences-user-"
+				+ ctx.getUserName() + suffix);
+	}
+
+}
@@ -0,0 +1,39 @@
+package ch.dueni.prefs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PreferencesJournalTest {
+
+	@Test
+	public void snapshotRecord() {
+		Map<String, String> values = new LinkedHashMap<String, String>();
+		values.put("plain", "value");
+		values.put("tab\tkey", "line\nbreak\r\\");
+		values.put("empty", "");
+		String record = PreferencesJournal.snapshot("/a/b", values);
+		assertEquals(Arrays.asList("/a/b", "plain", "value", "tab\tkey", "line\nbreak\r\\",
+				"empty", ""), PreferencesJournal.parseFields(record));
+	}
+
+	@Test
+	public void removedRecord() {
+		assertEquals(Arrays.asList("/a"), PreferencesJournal.parseFields(PreferencesJournal
+				.removed("/a")));
+	}
+
+	@Test
+	public void malformed() {
+		assertNull(PreferencesJournal.parseFields("S"));
+		assertNull(PreferencesJournal.parseFields("S/a"));
+		assertNull(PreferencesJournal.parseFields("S\t/a\\"));
+		assertNull(PreferencesJournal.parseFields("S\t/a\\x"));
+	}
+
+}
@@ -0,0 +1,105 @@
+package ch.dueni.prefs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.prefs.Preferences;
+import java.util.prefs.PreferencesFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import ch.dueni.prefs.servlet.AppMap;
+import ch.dueni.prefs.servlet.SessionMap;
+
+public class PreferencesWriterTest {
+
+	@BeforeClass
+	public static void init() {
+		System.setProperty(PreferencesFactory.class.getName(), XmlFilePreferencesFactory.class.getName());
+	}
+
+	@Before
+	public void setup() {
+		PreferencesContext prefsCtx = new PreferencesContext();
+		prefsCtx.setAppScope(new AppMap(new TestServletContext()));
+		prefsCtx.setUserScope(new SessionMap(new TestHttpSession()));
+		prefsCtx.setUserName("W" + System.nanoTime());
+		File target = new File("target/prefs-test");
+		prefsCtx.setStorePath(target.getAbsolutePath());
+		PreferencesContext.setCurrentInstance(prefsCtx);
+	}
+
+	@After
+	public void tearDown() {
+		PreferencesWriter.stop();
+		PreferencesContext.cleanup();
+	}
+
+	@Test
+	public void writtenOnStop() throws Exception {
+		PreferencesWriter.start(60000);
+		assertTrue(PreferencesWriter.isStarted());
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		Preferences node = Preferences.userRoot().node("behind");
+		for (int i = 0; i < 5; i++) {
+			node.putInt("count", i);
+			node.flush();
+			ctx.saveToBackingStore();
+		}
+		File xml = storeFile(ctx);
+		assertFalse(xml.exists());
+		PreferencesWriter.stop();
+		assertFalse(PreferencesWriter.isStarted());
+		assertTrue(xml.isFile());
+		assertEquals(4, reload(ctx).getInt("count", -1));
+	}
+
+	@Test
+	public void writtenAfterDelay() throws Exception {
+		PreferencesWriter.start(50);
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		Preferences node = Preferences.userRoot().node("behind");
+		node.put("key", "value");
+		node.flush();
+		ctx.saveToBackingStore();
+		File xml = storeFile(ctx);
+		long timeout = System.currentTimeMillis() + 10000;
+		while (!xml.exists() && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+		assertTrue(xml.isFile());
+	}
+
+	@Test
+	public void pendingWrittenBeforeLoad() throws Exception {
+		PreferencesWriter.start(60000);
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		Preferences node = Preferences.userRoot().node("behind");
+		node.put("key", "first");
+		node.flush();
+		ctx.saveToBackingStore();
+		// sync() must not drop the root while its write is pending
+		Preferences.userRoot().sync();
+		assertEquals("first", Preferences.userRoot().node("behind").get("key", null));
+		assertEquals("first", reload(ctx).get("key", null));
+	}
+
+	/**
+	 * Load the user tree in a new session.
+	 */
+	private Preferences reload(PreferencesContext ctx) {
+		ctx.setUserScope(new SessionMap(new TestHttpSession()));
+		return Preferences.userRoot().node("behind");
+	}
+
+	private File storeFile(PreferencesContext ctx) {
+		return new File(new File(ctx.getStorePath(), "prefs-store"), "JsfXmlPreferences-user-"
+				+ ctx.getUserName() + ".xml");
+	}
+
+}
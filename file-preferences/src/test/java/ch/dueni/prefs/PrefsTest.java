@@ -1,6 +1,13 @@
 package ch.dueni.prefs;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
 import java.util.prefs.PreferencesFactory;
@@ -158,4 +165,214 @@ public class PrefsTest {
 		assertTrue(node.nodeExists(""));
 		userRoot.sync();
 	}
+
+	@Test
+	public void changesAppendedToJournal() throws Exception {
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		ctx.setUserName("J" + System.nanoTime());
+		Preferences node = Preferences.userRoot().node("journal").node("node");
+		for (int i = 0; i < 50; i++) {
+			node.put("key" + i, "value " + i);
+		}
+		Preferences removed = Preferences.userRoot().node("journal").node("removed");
+		removed.put("gone", "soon");
+		node.flush();
+		ctx.saveToBackingStore();
+		File xml = storeFile(ctx, ".xml");
+		File journal = storeFile(ctx, ".journal");
+		assertTrue(xml.isFile());
+		assertFalse(journal.exists());
+		long xmlLength = xml.length();
+
+		node.put("key1", "changed\tvalue\\");
+		node.remove("key3");
+		removed.removeNode();
+		node.node("child").putInt("n", 1);
+		node.flush();
+		ctx.saveToBackingStore();
+		assertTrue(journal.isFile());
+		assertEquals(xmlLength, xml.length());
+
+		Preferences.userRoot().sync();
+		node = Preferences.userRoot().node("journal").node("node");
+		assertEquals("changed\tvalue\\", node.get("key1", null));
+		assertEquals("value 2", node.get("key2", null));
+		assertNull(node.get("key3", null));
+		assertEquals(1, node.node("child").getInt("n", -1));
+		assertFalse(Preferences.userRoot().nodeExists("journal/removed"));
+	}
+
+	@Test
+	public void journalCompacted() throws Exception {
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		ctx.setUserName("C" + System.nanoTime());
+		Preferences node = Preferences.userRoot().node("compact").node("node");
+		node.put("key", "initial");
+		node.flush();
+		ctx.saveToBackingStore();
+		File journal = storeFile(ctx, ".journal");
+		boolean appended = false;
+		boolean compacted = false;
+		for (int i = 0; i < 200; i++) {
+			node.put("key", "value " + i);
+			node.flush();
+			ctx.saveToBackingStore();
+			if (journal.exists()) {
+				appended = true;
+			} else if (appended) {
+				compacted = true;
+			}
+		}
+		assertTrue(appended);
+		assertTrue(compacted);
+
+		Preferences.userRoot().sync();
+		assertEquals("value 199", Preferences.userRoot().node("compact/node").get("key", null));
+	}
+
+	@Test
+	public void parallelStores() throws Exception {
+		final String prefix = "P" + System.nanoTime() + "-";
+		final AppMap appScope = new AppMap(new TestServletContext());
+		final String storePath = PreferencesContext.getCurrentInstance().getStorePath();
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			final int user = t;
+			threads[t] = new Thread() {
+
+				@Override
+				public void run() {
+					try {
+						for (int i = 0; i < 20; i++) {
+							PreferencesContext ctx = new PreferencesContext();
+							ctx.setAppScope(appScope);
+							ctx.setUserScope(new SessionMap(new TestHttpSession()));
+							ctx.setUserName(prefix + user);
+							ctx.setStorePath(storePath);
+							PreferencesContext.setCurrentInstance(ctx);
+							Preferences node = Preferences.userRoot().node("parallel");
+							node.putInt("count", i);
+							node.flush();
+							PreferencesContext.cleanup();
+						}
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		for (int t = 0; t < threads.length; t++) {
+			ctx.setUserName(prefix + t);
+			ctx.setUserScope(new SessionMap(new TestHttpSession()));
+			assertEquals(19, Preferences.userRoot().node("parallel").getInt("count", -1));
+		}
+	}
+
+	@Test
+	public void previousGenerationLoadedIfCorrupt() throws Exception {
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		ctx.setUserName("G" + System.nanoTime());
+		Preferences node = Preferences.userRoot().node("generation");
+		node.put("first", "1");
+		node.flush();
+		ctx.saveToBackingStore();
+		// larger than the XML file to export the second generation
+		for (int i = 0; i < 50; i++) {
+			node.put("second" + i, "2");
+		}
+		node.flush();
+		ctx.saveToBackingStore();
+		File xml = storeFile(ctx, ".xml");
+		assertTrue(storeFile(ctx, ".xml.previous").isFile());
+		assertFalse(storeFile(ctx, ".xml.tmp").exists());
+		assertFalse(storeFile(ctx, ".journal").exists());
+
+		write(xml, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<preferences EXTERNAL_XML_VERSION=", false);
+		ctx.setUserScope(new SessionMap(new TestHttpSession()));
+		node = Preferences.userRoot().node("generation");
+		assertEquals("1", node.get("first", null));
+		assertNull(node.get("second0", null));
+	}
+
+	@Test
+	public void truncatedJournalRecordIgnored() throws Exception {
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		ctx.setUserName("T" + System.nanoTime());
+		Preferences node = Preferences.userRoot().node("truncated");
+		for (int i = 0; i < 20; i++) {
+			node.put("key" + i, "value " + i);
+		}
+		node.flush();
+		ctx.saveToBackingStore();
+		node.put("key1", "changed");
+		node.flush();
+		ctx.saveToBackingStore();
+		File journal = storeFile(ctx, ".journal");
+		assertTrue(journal.isFile());
+		write(journal, "S\t/truncated\tkey1\tcut", true);
+
+		ctx.setUserScope(new SessionMap(new TestHttpSession()));
+		node = Preferences.userRoot().node("truncated");
+		assertEquals("changed", node.get("key1", null));
+		assertEquals("value 2", node.get("key2", null));
+
+		// the next append must not continue the torn line
+		node.put("key3", "appended");
+		node.flush();
+		ctx.saveToBackingStore();
+		assertTrue(journal.isFile());
+		ctx.setUserScope(new SessionMap(new TestHttpSession()));
+		node = Preferences.userRoot().node("truncated");
+		assertEquals("changed", node.get("key1", null));
+		assertEquals("appended", node.get("key3", null));
+	}
+
+	@Test
+	public void failedJournalAppendExportsTree() throws Exception {
+		PreferencesContext ctx = PreferencesContext.getCurrentInstance();
+		ctx.setUserName("F" + System.nanoTime());
+		Preferences node = Preferences.userRoot().node("failed");
+		node.put("key1", "value 1");
+		node.flush();
+		ctx.saveToBackingStore();
+		// directories in place of the journal and the temporary file fail append and export
+		File journal = storeFile(ctx, ".journal");
+		File temp = storeFile(ctx, ".xml.tmp");
+		assertTrue(journal.mkdir());
+		assertTrue(temp.mkdir());
+		node.put("key1", "changed");
+		node.flush();
+		ctx.saveToBackingStore();
+		assertTrue(journal.delete());
+		assertTrue(temp.delete());
+
+		// the changes taken by the failed flush are exported with the next one
+		node.flush();
+		ctx.saveToBackingStore();
+		assertFalse(journal.exists());
+		ctx.setUserScope(new SessionMap(new TestHttpSession()));
+		node = Preferences.userRoot().node("failed");
+		assertEquals("changed", node.get("key1", null));
+	}
+
+	private void write(File file, String content, boolean append) throws IOException {
+		Writer out = new OutputStreamWriter(new FileOutputStream(file, append), "UTF-8");
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+	}
+
+	private File storeFile(PreferencesContext ctx, String suffix) {
+		return new File(new File(ctx.getStorePath(), "prefs-store"), "JsfXmlPreferences-user-"
+				+ ctx.getUserName() + suffix);
+	}
 }
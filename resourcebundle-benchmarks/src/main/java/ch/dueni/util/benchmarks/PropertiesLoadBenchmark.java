@@ -0,0 +1,108 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.dueni.util.CompactPropertiesBundle;
+import ch.dueni.util.UTF8Control;
+
+/**
+ * Compares loading an UTF-8 properties file as {@link PropertyResourceBundle} through an
+ * InputStreamReader - the former {@link UTF8Control} path - with {@link CompactPropertiesBundle}.
+ * The generated file mixes ASCII and non-ASCII values, escapes and continuation lines like a
+ * translated message catalog.
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar PropertiesLoadBenchmark
+ * </pre>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PropertiesLoadBenchmark {
+
+	@Param({ "1000", "60000" })
+	public int keys;
+
+	private byte[] content;
+
+	@Setup
+	public void setup() {
+		content = generate(keys);
+	}
+
+	@Benchmark
+	public ResourceBundle propertyResourceBundle() throws IOException {
+		return new PropertyResourceBundle(new InputStreamReader(new ByteArrayInputStream(content),
+				StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	public ResourceBundle compactPropertiesBundle() throws IOException {
+		return new CompactPropertiesBundle(new ByteArrayInputStream(content));
+	}
+
+	static byte[] generate(int keys) {
+		StringBuilder sb = new StringBuilder(keys * 60);
+		sb.append("# generated message catalog\n");
+		for (int i = 0; i < keys; i++) {
+			String key = "page" + (i % 97) + ".section" + (i % 13) + ".message" + i;
+			switch (i % 4) {
+			case 0:
+				sb.append(key).append('=').append("Simple message number ").append(i);
+				break;
+			case 1:
+				sb.append(key).append(" = ").append("Nachricht für Benutzer {0} – Nr. ").append(i);
+				break;
+			case 2:
+				sb.append(key).append(": ").append("Escaped \\u00e9l\\u00e8ve\\tand tab ").append(i);
+				break;
+			default:
+				sb.append(key).append('=').append("Long message continued \\\n    on the next line ")
+						.append(i);
+			}
+			sb.append('\n');
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+/**
+ * <code>CompactPropertiesBundle</code> is a read-only ResourceBundle read from an UTF-8 encoded
+ * properties file, the replacement of {@link java.util.PropertyResourceBundle} used by
+ * {@link UTF8Control}. The file is parsed by a purpose-built streaming parser straight into the
+ * one unsynchronized HashMap kept by the bundle - no Reader, no Properties table and no copy of it.
+ * <p>
+ * The bundles combined by {@link MultiplePropertiesResourceBundle} are dropped once their values
+ * are held by its {@link ResourceTable}, sorting and interning the keys of each of them would only
+ * cost load time.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public class CompactPropertiesBundle extends ResourceBundle {
+
+	private final Map<String, Object> resources;
+
+	/**
+	 * Create the bundle from an UTF-8 encoded properties stream.
+	 * 
+	 * @param in
+	 *          the properties stream, not closed by this constructor.
+	 * @throws IOException
+	 *           if reading the stream fails.
+	 * @throws IllegalArgumentException
+	 *           if the stream contains a malformed \\uXXXX escape.
+	 */
+	public CompactPropertiesBundle(InputStream in) throws IOException {
+		resources = Collections.unmodifiableMap(Utf8PropertiesParser.parse(in));
+	}
+
+	@Override
+	protected Object handleGetObject(String key) {
+		if (key == null) {
+			throw new NullPointerException();
+		}
+		return resources.get(key);
+	}
+
+	@Override
+	public Enumeration<String> getKeys() {
+		ResourceBundle parent = this.parent;
+		return new ResourceBundleEnumeration(resources.keySet(), (parent != null) ? parent.getKeys()
+				: null);
+	}
+
+	@Override
+	protected Set<String> handleKeySet() {
+		return resources.keySet();
+	}
+
+}
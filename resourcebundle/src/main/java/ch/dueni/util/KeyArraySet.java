@@ -0,0 +1,125 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only Set of keys held in a sorted array, created once and returned as is by the key views
+ * of the bundles instead of building a new Set or enumeration over a Set on each call.
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+final class KeyArraySet extends AbstractSet<String> {
+
+	private final String[] keys;
+
+	/**
+	 * Create the Set of the passed in keys.
+	 * 
+	 * @param keys
+	 *          the sorted keys without duplicates, not copied and not to be changed afterwards.
+	 */
+	KeyArraySet(String[] keys) {
+		this.keys = keys;
+	}
+
+	@Override
+	public boolean contains(Object key) {
+		return key instanceof String && Arrays.binarySearch(keys, key) >= 0;
+	}
+
+	@Override
+	public int size() {
+		return keys.length;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return new Cursor();
+	}
+
+	/**
+	 * @return an enumeration of the keys in sort order.
+	 */
+	Enumeration<String> enumeration() {
+		return new Cursor();
+	}
+
+	/**
+	 * Return a Set of the keys of both sets.
+	 * 
+	 * @param more
+	 *          the keys to add to the keys of this Set.
+	 * @return this Set if it already contains all keys, otherwise a new Set.
+	 */
+	KeyArraySet union(Iterable<String> more) {
+		String[] merged = null;
+		int size = keys.length;
+		for (String key : more) {
+			if (!contains(key)) {
+				if (merged == null) {
+					merged = Arrays.copyOf(keys, keys.length + 16);
+				} else if (size == merged.length) {
+					merged = Arrays.copyOf(merged, size * 2);
+				}
+				merged[size++] = key;
+			}
+		}
+		if (merged == null) {
+			return this;
+		}
+		merged = Arrays.copyOf(merged, size);
+		Arrays.sort(merged);
+		return new KeyArraySet(merged);
+	}
+
+	private class Cursor implements Iterator<String>, Enumeration<String> {
+
+		private int next;
+
+		public boolean hasNext() {
+			return next < keys.length;
+		}
+
+		public String next() {
+			if (next >= keys.length) {
+				throw new NoSuchElementException();
+			}
+			return keys[next++];
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		public boolean hasMoreElements() {
+			return hasNext();
+		}
+
+		public String nextElement() {
+			return next();
+		}
+
+	}
+
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of a binary message catalog as written by {@link #write(Map, OutputStream)}. The
+ * catalog is accessed in place - usually a memory-mapped file - and a value is only decoded to a
+ * String when it is looked up for the first time.
+ * <p>
+ * Layout, all numbers are big-endian ints:
+ * 
+ * <pre>
+ * magic 'DMC1' | entry count | slot count (power of two)
+ * slot count * (key hash, offset of the entry in the pool or -1 for an empty slot)
+ * pool: per entry key length, key UTF-8 bytes, value length, value UTF-8 bytes
+ * </pre>
+ * 
+ * The slots form an open addressing hash table with linear probing, filled at most to half.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+final class MessageCatalog {
+
+	/** 'DMC1' */
+	static final int MAGIC = 0x444D4331;
+
+	private static final int HEADER_SIZE = 12;
+
+	private final ByteBuffer buffer;
+
+	private final int size;
+
+	private final int mask;
+
+	private final int poolStart;
+
+	/**
+	 * The decoded values by slot. Racy but benign: a String is immutable, so at worst two threads
+	 * decode the same value.
+	 */
+	private final String[] values;
+
+	/**
+	 * Create a catalog reading from the passed in buffer.
+	 * 
+	 * @param buffer
+	 *          the catalog content from position 0, not changed afterwards.
+	 * @throws IOException
+	 *           if the buffer does not contain a catalog.
+	 */
+	MessageCatalog(ByteBuffer buffer) throws IOException {
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("not a message catalog");
+		}
+		int slots = buffer.getInt(8);
+		if (Integer.bitCount(slots) != 1 || HEADER_SIZE + 8L * slots > buffer.capacity()) {
+			throw new IOException("corrupt message catalog, " + slots + " slots");
+		}
+		this.buffer = buffer;
+		this.size = buffer.getInt(4);
+		this.mask = slots - 1;
+		this.poolStart = HEADER_SIZE + 8 * slots;
+		this.values = new String[slots];
+	}
+
+	/**
+	 * Return the value of the key, decoding it on first access.
+	 * 
+	 * @param key
+	 *          the key to look up.
+	 * @return the value or <code>null</code> if the catalog does not contain the key.
+	 */
+	String get(String key) {
+		int hash = key.hashCode();
+		byte[] keyBytes = null;
+		for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+			int at = HEADER_SIZE + 8 * slot;
+			int offset = buffer.getInt(at + 4);
+			if (offset < 0) {
+				return null;
+			}
+			if (buffer.getInt(at) != hash) {
+				continue;
+			}
+			if (keyBytes == null) {
+				keyBytes = key.getBytes(StandardCharsets.UTF_8);
+			}
+			int entry = poolStart + offset;
+			if (equalBytes(entry, keyBytes)) {
+				String value = values[slot];
+				if (value == null) {
+					int valueAt = entry + 4 + keyBytes.length;
+					value = decode(valueAt + 4, buffer.getInt(valueAt));
+					values[slot] = value;
+				}
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * Return the number of entries.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Decode and return all keys of the catalog, in no particular order.
+	 */
+	List<String> keys() {
+		List<String> keys = new ArrayList<String>(size);
+		for (int slot = 0; slot <= mask; slot++) {
+			int offset = buffer.getInt(HEADER_SIZE + 8 * slot + 4);
+			if (offset >= 0) {
+				int entry = poolStart + offset;
+				keys.add(decode(entry + 4, buffer.getInt(entry)));
+			}
+		}
+		return keys;
+	}
+
+	private boolean equalBytes(int entry, byte[] keyBytes) {
+		if (buffer.getInt(entry) != keyBytes.length) {
+			return false;
+		}
+		int start = entry + 4;
+		for (int i = 0; i < keyBytes.length; i++) {
+			if (buffer.get(start + i) != keyBytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String decode(int start, int length) {
+		byte[] bytes = new byte[length];
+		ByteBuffer view = buffer.duplicate();
+		view.position(start);
+		view.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Spread the higher bits of the String hash like {@link java.util.HashMap} does.
+	 */
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Write the resources as binary catalog.
+	 * 
+	 * @param resources
+	 *          the resources, all values must be Strings.
+	 * @param out
+	 *          the stream to write to, not closed.
+	 * @throws IOException
+	 *           if writing fails.
+	 * @throws IllegalArgumentException
+	 *           if a value is not a String.
+	 */
+	static void write(Map<String, ?> resources, OutputStream out) throws IOException {
+		int slots = 2;
+		while (slots < resources.size() * 2) {
+			slots <<= 1;
+		}
+		int[] hashes = new int[slots];
+		int[] offsets = new int[slots];
+		Arrays.fill(offsets, -1);
+		List<String> keys = new ArrayList<String>(resources.keySet());
+		// sorted to write the same catalog for the same resources
+		Collections.sort(keys);
+		List<byte[]> pool = new ArrayList<byte[]>(keys.size() * 2);
+		int poolSize = 0;
+		for (String key : keys) {
+			Object value = resources.get(key);
+			if (!(value instanceof String)) {
+				throw new IllegalArgumentException("value of '" + key + "' is not a String: " + value);
+			}
+			int hash = key.hashCode();
+			int slot = spread(hash) & (slots - 1);
+			while (offsets[slot] >= 0) {
+				slot = (slot + 1) & (slots - 1);
+			}
+			hashes[slot] = hash;
+			offsets[slot] = poolSize;
+			byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+			byte[] valueBytes = ((String)value).getBytes(StandardCharsets.UTF_8);
+			pool.add(keyBytes);
+			pool.add(valueBytes);
+			poolSize += 8 + keyBytes.length + valueBytes.length;
+		}
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(keys.size());
+		data.writeInt(slots);
+		for (int slot = 0; slot < slots; slot++) {
+			data.writeInt(hashes[slot]);
+			data.writeInt(offsets[slot]);
+		}
+		for (byte[] bytes : pool) {
+			data.writeInt(bytes.length);
+			data.write(bytes);
+		}
+		data.flush();
+	}
+
+}
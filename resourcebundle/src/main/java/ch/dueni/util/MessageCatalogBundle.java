@@ -0,0 +1,71 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+/**
+ * ResourceBundle reading its resources from a {@link MessageCatalog}, created by
+ * {@link MessageCatalogControl}.
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+final class MessageCatalogBundle extends ResourceBundle {
+
+	private final MessageCatalog catalog;
+
+	/** the keys of the catalog, decoded on first use */
+	private volatile KeyArraySet keySet;
+
+	MessageCatalogBundle(MessageCatalog catalog) {
+		this.catalog = catalog;
+	}
+
+	@Override
+	protected Object handleGetObject(String key) {
+		if (key == null) {
+			throw new NullPointerException();
+		}
+		return catalog.get(key);
+	}
+
+	@Override
+	public Enumeration<String> getKeys() {
+		ResourceBundle parent = this.parent;
+		return new ResourceBundleEnumeration(handleKeySet(), (parent != null) ? parent.getKeys()
+				: null);
+	}
+
+	@Override
+	protected Set<String> handleKeySet() {
+		KeyArraySet keys = keySet;
+		if (keys == null) {
+			List<String> decoded = catalog.keys();
+			String[] sorted = decoded.toArray(new String[decoded.size()]);
+			Arrays.sort(sorted);
+			keys = new KeyArraySet(sorted);
+			keySet = keys;
+		}
+		return keys;
+	}
+
+}
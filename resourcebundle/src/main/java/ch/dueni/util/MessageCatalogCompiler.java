@@ -0,0 +1,143 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+/**
+ * Compiles the combined resources of {@link MultiplePropertiesResourceBundle} classes into the
+ * binary catalogs read by {@link MessageCatalogControl}, one per bundle class and Locale. Run it
+ * as part of the build with the properties files and bundle classes on the class path, for
+ * example:
+ * 
+ * <pre>
+ * java -cp target/classes:resourcebundle.jar ch.dueni.util.MessageCatalogCompiler target/classes \
+ *     ch.dueni.example.ExampleResourceBundle de en fr-CH
+ * </pre>
+ * 
+ * The catalog is written next to the class file of the bundle, e.g.
+ * <code>ch/dueni/example/ExampleResourceBundle_de.catalog</code>. A Locale without bundle class
+ * resolves to the base bundle like {@link ResourceBundle#getBundle(String, Locale)} does and is
+ * written as its catalog.
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public final class MessageCatalogCompiler {
+
+	private MessageCatalogCompiler() {
+	}
+
+	/**
+	 * Command line entry point.
+	 * 
+	 * @param args
+	 *          the output directory, the bundle class name and the language tags of the Locales to
+	 *          compile besides the root Locale.
+	 * @throws IOException
+	 *           if a catalog cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage: MessageCatalogCompiler <output directory> <bundle class>"
+					+ " [language tag ...]");
+			System.exit(1);
+		}
+		List<Locale> locales = new ArrayList<Locale>();
+		for (int i = 2; i < args.length; i++) {
+			locales.add(Locale.forLanguageTag(args[i]));
+		}
+		for (File file : compile(new File(args[0]), args[1], locales)) {
+			System.out.println("written " + file);
+		}
+	}
+
+	/**
+	 * Compile the catalogs of the bundle class for the root Locale and the passed in Locales.
+	 * 
+	 * @param outputDir
+	 *          the root directory to write the catalogs to.
+	 * @param bundleClassName
+	 *          the name of the {@link MultiplePropertiesResourceBundle} base class.
+	 * @param locales
+	 *          the Locales to compile besides the root Locale.
+	 * @return the catalog files written.
+	 * @throws IOException
+	 *           if a catalog cannot be written.
+	 * @throws IllegalArgumentException
+	 *           if the bundle is no {@link MultiplePropertiesResourceBundle}.
+	 */
+	public static List<File> compile(File outputDir, String bundleClassName, List<Locale> locales)
+			throws IOException {
+		ResourceBundle.Control control = ResourceBundle.Control
+				.getNoFallbackControl(ResourceBundle.Control.FORMAT_CLASS);
+		List<Locale> all = new ArrayList<Locale>(locales.size() + 1);
+		all.add(Locale.ROOT);
+		all.addAll(locales);
+		List<File> written = new ArrayList<File>();
+		for (Locale locale : all) {
+			ResourceBundle bundle = ResourceBundle.getBundle(bundleClassName, locale, control);
+			if (!(bundle instanceof MultiplePropertiesResourceBundle)) {
+				throw new IllegalArgumentException(bundle.getClass().getName()
+						+ " is no MultiplePropertiesResourceBundle");
+			}
+			File file = compile(outputDir, (MultiplePropertiesResourceBundle)bundle);
+			if (!written.contains(file)) {
+				written.add(file);
+			}
+		}
+		return written;
+	}
+
+	/**
+	 * Write the catalog of the combined resources of the bundle.
+	 * 
+	 * @param outputDir
+	 *          the root directory to write the catalog to.
+	 * @param bundle
+	 *          the bundle to compile.
+	 * @return the catalog file written.
+	 * @throws IOException
+	 *           if the catalog cannot be written.
+	 */
+	public static File compile(File outputDir, MultiplePropertiesResourceBundle bundle)
+			throws IOException {
+		String name = bundle.getClass().getName().replace('.', '/') + '.'
+				+ MessageCatalogControl.SUFFIX;
+		File file = new File(outputDir, name);
+		File dir = file.getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("cannot create directory " + dir);
+		}
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+		try {
+			MessageCatalog.write(bundle.getCombinedResources(), out);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+}
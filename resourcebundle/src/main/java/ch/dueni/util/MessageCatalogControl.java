@@ -0,0 +1,123 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+/**
+ * ResourceBundle.Control loading the binary catalogs written by {@link MessageCatalogCompiler}
+ * instead of combining the properties files at runtime:
+ * 
+ * <pre>
+ * ResourceBundle bundle = ResourceBundle.getBundle(&quot;ch.dueni.example.ExampleResourceBundle&quot;, locale,
+ * 		new MessageCatalogControl());
+ * </pre>
+ * 
+ * A catalog in a directory of the class path is memory-mapped, one inside a jar file is read into
+ * a heap buffer. Either way values are only decoded to Strings on lookup. Where no catalog is found
+ * the <code>MultiplePropertiesResourceBundle</code> class is loaded as without this control, so
+ * compiling the catalogs is optional.
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public class MessageCatalogControl extends ResourceBundle.Control {
+
+	/** format name of the binary message catalogs */
+	public static final String FORMAT_CATALOG = "ch.dueni.catalog";
+
+	/** file name suffix of the binary message catalogs */
+	public static final String SUFFIX = "catalog";
+
+	private static final List<String> FORMATS = Collections.unmodifiableList(Arrays.asList(
+			FORMAT_CATALOG, "java.class"));
+
+	@Override
+	public List<String> getFormats(String baseName) {
+		if (baseName == null) {
+			throw new NullPointerException();
+		}
+		return FORMATS;
+	}
+
+	@Override
+	public ResourceBundle newBundle(String baseName, Locale locale, String format,
+			ClassLoader loader, boolean reload) throws IllegalAccessException, InstantiationException,
+			IOException {
+		if (!FORMAT_CATALOG.equals(format)) {
+			return super.newBundle(baseName, locale, format, loader, reload);
+		}
+		String resourceName = toResourceName(toBundleName(baseName, locale), SUFFIX);
+		URL url = loader.getResource(resourceName);
+		if (url == null) {
+			return null;
+		}
+		return new MessageCatalogBundle(new MessageCatalog(open(url, reload)));
+	}
+
+	/**
+	 * Map the catalog file or read it if it is not a file.
+	 */
+	private static ByteBuffer open(URL url, boolean reload) throws IOException {
+		if ("file".equals(url.getProtocol())) {
+			File file;
+			try {
+				file = new File(url.toURI());
+			} catch (URISyntaxException e) {
+				file = new File(url.getPath());
+			}
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			try {
+				// the mapping stays valid after the channel is closed
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				channel.close();
+			}
+		}
+		URLConnection connection = url.openConnection();
+		if (reload) {
+			connection.setUseCaches(false);
+		}
+		InputStream in = connection.getInputStream();
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+			byte[] buf = new byte[8192];
+			int read;
+			while ((read = in.read(buf)) > 0) {
+				out.write(buf, 0, read);
+			}
+			return ByteBuffer.wrap(out.toByteArray());
+		} finally {
+			in.close();
+		}
+	}
+
+}
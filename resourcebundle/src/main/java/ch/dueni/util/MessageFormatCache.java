@@ -0,0 +1,120 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.text.MessageFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <code>MessageFormatCache</code> keeps the parsed {@link MessageFormat}s of one bundle instance,
+ * which is of one Locale. The cache is bounded, the least recently used formats are dropped once
+ * <code>maxSize</code> formats are kept.
+ * <p>
+ * A MessageFormat is not thread-safe, a cached one is locked while formatting. Threads formatting
+ * different messages do not wait for each other except for the short cache lookup. A format is
+ * parsed again if the pattern of its key changed, e.g. by hot reload.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+final class MessageFormatCache {
+
+	private final Locale locale;
+
+	private final Map<String, CachedFormat> formats;
+
+	/**
+	 * Create the cache for the Locale.
+	 * 
+	 * @param locale
+	 *          the Locale to format with.
+	 * @param maxSize
+	 *          maximum number of formats kept.
+	 */
+	MessageFormatCache(Locale locale, final int maxSize) {
+		this.locale = locale;
+		this.formats = new LinkedHashMap<String, CachedFormat>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedFormat> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Format the arguments with the pattern of the key.
+	 * 
+	 * @param key
+	 *          the key of the message, used as cache key.
+	 * @param pattern
+	 *          the current pattern of the message.
+	 * @param args
+	 *          the arguments to format.
+	 * @return the formatted message.
+	 */
+	String format(String key, String pattern, Object[] args) {
+		CachedFormat cached;
+		synchronized (formats) {
+			cached = formats.get(key);
+		}
+		if (cached == null || !cached.isFor(pattern)) {
+			// parse outside the lock, a concurrent parse of the same pattern is harmless
+			cached = new CachedFormat(pattern, new MessageFormat(pattern, locale));
+			synchronized (formats) {
+				formats.put(key, cached);
+			}
+		}
+		synchronized (cached.format) {
+			return cached.format.format(args);
+		}
+	}
+
+	/**
+	 * @return number of formats kept.
+	 */
+	int size() {
+		synchronized (formats) {
+			return formats.size();
+		}
+	}
+
+	/**
+	 * The parsed format with the pattern it was parsed from.
+	 */
+	private static class CachedFormat {
+
+		final String pattern;
+
+		final MessageFormat format;
+
+		CachedFormat(String pattern, MessageFormat format) {
+			this.pattern = pattern;
+			this.format = format;
+		}
+
+		boolean isFor(String pattern) {
+			return this.pattern == pattern || this.pattern.equals(pattern);
+		}
+	}
+
+}
@@ -18,9 +18,13 @@ package ch.dueni.util;
 
 import java.io.File;
 import java.net.URL;
+import java.text.MessageFormat;
 import java.util.*;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -96,6 +100,20 @@ import java.util.logging.Logger;
  * properties files in natural sort order of the file name. Properties files loaded later may 
  * override previously loaded properties.
  * </p>
+ * <p>
+ * For development, properties files in directories may be changed without restart after
+ * {@link PropertiesWatcher#enable()}: the combined resources using a changed directory are
+ * reloaded on next access.
+ * </p>
+ * <p>
+ * Base-names combining many properties files may load them in parallel after
+ * {@link ParallelBundleLoader#enable(int)}, the load order above still applies.
+ * </p>
+ * <p>
+ * For production, the combined resources can be compiled at build time with
+ * {@link MessageCatalogCompiler} into binary catalogs that {@link MessageCatalogControl}
+ * memory-maps instead of loading the properties files.
+ * </p>
  * 
  * @author Hanspeter D&uuml;nnenberger
  *
@@ -129,9 +147,28 @@ public abstract class MultiplePropertiesResourceBundle extends ResourceBundle {
 
 	/**
 	 * A Map containing the combined resources of all parts building this
-	 * MultiplePropertiesResourceBundle.
+	 * MultiplePropertiesResourceBundle. Assigned once completely loaded and never changed after, so
+	 * readers only need the volatile read - on hot reload it is replaced as a whole.
+	 */
+	private volatile ResourceTable combined;
+
+	/**
+	 * Lock held while loading the combined resources.
+	 */
+	private final Object loadLock = new Object();
+
+	/**
+	 * The keys of this bundle and its parents, computed on first use.
+	 */
+	private volatile MergedKeys keys;
+
+	/** default maximum number of parsed formats kept per bundle instance */
+	public static final int DEFAULT_FORMAT_CACHE_SIZE = 256;
+
+	/**
+	 * The parsed formats used by {@link #format(String, Object...)}, created on first use.
 	 */
-	private Map<String, Object> combined;
+	private volatile MessageFormatCache formats;
 
     /**
      * Construct a <code>MultiplePropertiesResourceBundle</code> for the all properties.
@@ -168,41 +205,295 @@ public abstract class MultiplePropertiesResourceBundle extends ResourceBundle {
 		if (key == null) {
 			throw new NullPointerException();
 		}
-		loadBundlesOnce();
-		return combined.get(key);
+		return loadBundlesOnce().get(key);
 	}
 
 	@Override
 	public Enumeration<String> getKeys() {
-		loadBundlesOnce();
+		return mergedKeys().enumeration();
+	}
+
+	/**
+	 * Return the keys of this bundle and its parents. The Set is computed once per combined
+	 * resources and returned as is by further calls.
+	 */
+	@Override
+	public Set<String> keySet() {
+		return mergedKeys();
+	}
+
+	/**
+	 * Format the message of the key with the arguments like
+	 * {@link MessageFormat#format(String, Object...)} does, but with the Locale of this bundle and
+	 * without parsing the pattern each time: the parsed formats are kept in a bounded cache of this
+	 * bundle instance.
+	 * 
+	 * @param key
+	 *          the key of the message pattern.
+	 * @param args
+	 *          the arguments to format.
+	 * @return the formatted message.
+	 * @throws MissingResourceException
+	 *           if there is no message for the key.
+	 * @throws IllegalArgumentException
+	 *           if the pattern is invalid or an argument cannot be formatted.
+	 */
+	public String format(String key, Object... args) {
+		String pattern = getString(key);
+		MessageFormatCache cache = formats;
+		if (cache == null) {
+			synchronized (loadLock) {
+				cache = formats;
+				if (cache == null) {
+					cache = new MessageFormatCache(getLocale(), getFormatCacheSize());
+					formats = cache;
+				}
+			}
+		}
+		return cache.format(key, pattern, args);
+	}
+
+	/**
+	 * Return the maximum number of parsed formats kept by {@link #format(String, Object...)}.
+	 * Override to keep more or less than {@link #DEFAULT_FORMAT_CACHE_SIZE}.
+	 * 
+	 * @return the maximum number of formats kept.
+	 */
+	protected int getFormatCacheSize() {
+		return DEFAULT_FORMAT_CACHE_SIZE;
+	}
+
+	/**
+	 * Return the cached keys of this bundle and its parents, merged again only after the combined
+	 * resources of this bundle or a {@link MultiplePropertiesResourceBundle} parent were reloaded.
+	 * 
+	 * @return the read-only keys.
+	 */
+	private KeyArraySet mergedKeys() {
+		ResourceTable resources = loadBundlesOnce();
 		ResourceBundle parent = this.parent;
-		return new ResourceBundleEnumeration(combined.keySet(), (parent != null) ? parent.getKeys()
-				: null);
+		Set<String> parentKeys = (parent instanceof MultiplePropertiesResourceBundle) ? parent.keySet()
+				: null;
+		MergedKeys merged = keys;
+		if (merged == null || merged.resources != resources || merged.parentKeys != parentKeys) {
+			KeyArraySet keySet = (KeyArraySet)resources.keySet();
+			if (parent != null) {
+				keySet = keySet.union((parentKeys != null) ? parentKeys : parent.keySet());
+			}
+			merged = new MergedKeys(resources, parentKeys, keySet);
+			keys = merged;
+		}
+		return merged.keys;
 	}
 
 	/**
-	 * Load the resources once.
+	 * Return the keys of the current combined resources instead of the Set computed once by
+	 * {@link ResourceBundle}, which would miss keys added by hot reload.
 	 */
-	private void loadBundlesOnce() {
-		if (combined == null) {
-			combined = new HashMap<String, Object>(128);
+	@Override
+	protected Set<String> handleKeySet() {
+		return loadBundlesOnce().keySet();
+	}
+
+	/**
+	 * Return the combined resources of this bundle without the resources of its parent, used by
+	 * {@link MessageCatalogCompiler}.
+	 * 
+	 * @return the read-only combined resources.
+	 */
+	Map<String, Object> getCombinedResources() {
+		return loadBundlesOnce();
+	}
+
+	/**
+	 * Load the resources once, or again after the {@link PropertiesWatcher} marked them stale.
+	 * Threads calling while another thread is loading wait for it to finish, once loaded the
+	 * combined resources are returned without locking.
+	 * 
+	 * @return the combined resources.
+	 */
+	private ResourceTable loadBundlesOnce() {
+		ResourceTable resources = combined;
+		if (resources == null || resources.isStale()) {
+			synchronized (loadLock) {
+				resources = combined;
+				if (resources == null || resources.isStale()) {
+					resources = loadBundles(resources != null);
+					combined = resources;
+				}
+			}
+		}
+		return resources;
+	}
 
+	/**
+	 * Return the combined resources shared by the {@link PropertiesIndex} or load them into a
+	 * {@link ResourceTable}.
+	 * 
+	 * @param reload
+	 *          <code>true</code> to read the properties files bypassing URL caches.
+	 * @return the read-only combined resources.
+	 */
+	private ResourceTable loadBundles(boolean reload) {
+		ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		PropertiesIndex index = PropertiesIndex.forClassLoader(cl);
+		String key = getResourcePath() + baseName;
+		ResourceTable table = index.getCombined(key, getLocale());
+		if (table == null) {
+			Map<String, Object> resources = new HashMap<String, Object>(128);
+			ResourceBundle.Control control = new UTF8Control();
 			List<String> bundleNames = findBaseNames(baseName);
-			for (String bundleName : bundleNames) {
-				ResourceBundle bundle = ResourceBundle.getBundle(bundleName, getLocale(), new UTF8Control());
-				Enumeration<String> keys = bundle.getKeys();
-				String key = null;
-				while (keys.hasMoreElements()) {
-					key = keys.nextElement();
-					combined.put(key, bundle.getObject(key));
+			ExecutorService executor = ParallelBundleLoader.executor();
+			if (executor == null || bundleNames.size() < 2
+					|| !loadParallel(bundleNames, control, cl, reload, executor, resources)) {
+				for (String bundleName : bundleNames) {
+					loadBundle(bundleName, getLocale(), control, cl, reload, resources);
+				}
+			}
+			table = new ResourceTable(resources);
+			if (index.getBaseNames(key) != null) {
+				// not shared if combined from the names of a failed scan
+				table = index.putCombined(key, getLocale(), table);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Load the named bundles on the executor and put their resources into <code>resources</code> in
+	 * the order of the names, like loading one after the other does.
+	 * 
+	 * @return <code>false</code> if the executor did not accept the loads, e.g. because it was
+	 *         disabled meanwhile, and nothing was put into <code>resources</code>.
+	 */
+	private boolean loadParallel(List<String> bundleNames, final ResourceBundle.Control control,
+			final ClassLoader cl, final boolean reload, ExecutorService executor,
+			Map<String, Object> resources) {
+		final Locale locale = getLocale();
+		List<Future<Map<String, Object>>> loads = new ArrayList<Future<Map<String, Object>>>(
+				bundleNames.size());
+		try {
+			for (final String bundleName : bundleNames) {
+				loads.add(executor.submit(new Callable<Map<String, Object>>() {
+
+					public Map<String, Object> call() {
+						Map<String, Object> bundleResources = new HashMap<String, Object>(64);
+						loadBundle(bundleName, locale, control, cl, reload, bundleResources);
+						return bundleResources;
+					}
+
+				}));
+			}
+		} catch (RejectedExecutionException e) {
+			for (Future<Map<String, Object>> load : loads) {
+				load.cancel(false);
+			}
+			return false;
+		}
+		boolean interrupted = false;
+		for (Future<Map<String, Object>> load : loads) {
+			while (true) {
+				try {
+					resources.putAll(load.get());
+					break;
+				} catch (InterruptedException e) {
+					// complete the load, the bundle must not see partial resources
+					interrupted = true;
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException)cause;
+					}
+					throw (Error)cause;
 				}
 			}
 		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		return true;
+	}
+
+	/**
+	 * Put the resources of the named bundle for the Locale into <code>resources</code>, following the
+	 * candidate and fallback Locales of the <code>control</code> the same way
+	 * {@link ResourceBundle#getBundle(String, Locale, ClassLoader, ResourceBundle.Control)} does. The
+	 * bundles are created by the control directly and not kept in the ResourceBundle cache, so they
+	 * can be garbage collected once their resources are combined.
+	 * 
+	 * @param bundleName
+	 *          the real base-name of the bundle.
+	 * @param locale
+	 *          the Locale to load.
+	 * @param control
+	 *          the control creating the bundles.
+	 * @param cl
+	 *          the ClassLoader to load the bundles from.
+	 * @param reload
+	 *          <code>true</code> to read the properties files bypassing URL caches.
+	 * @param resources
+	 *          the combined resources to add to.
+	 */
+	private void loadBundle(String bundleName, Locale locale, ResourceBundle.Control control,
+			ClassLoader cl, boolean reload, Map<String, Object> resources) {
+		List<ResourceBundle> chain = new ArrayList<ResourceBundle>();
+		Locale targetLocale = locale;
+		while (targetLocale != null) {
+			List<ResourceBundle> candidates = new ArrayList<ResourceBundle>();
+			boolean baseOnly = loadCandidates(bundleName, targetLocale, control, cl, reload,
+					candidates);
+			if (chain.isEmpty() || !baseOnly) {
+				chain = candidates;
+			}
+			if (!baseOnly || Locale.ROOT.equals(targetLocale)) {
+				break;
+			}
+			Locale fallback = control.getFallbackLocale(bundleName, targetLocale);
+			targetLocale = targetLocale.equals(fallback) ? null : fallback;
+		}
+		// least specific first to let the more specific Locales override
+		for (int i = chain.size() - 1; i >= 0; i--) {
+			ResourceBundle bundle = chain.get(i);
+			Enumeration<String> keys = bundle.getKeys();
+			while (keys.hasMoreElements()) {
+				String name = keys.nextElement();
+				resources.put(name, bundle.getObject(name));
+			}
+		}
+	}
+
+	/**
+	 * Create the bundles found for the candidate Locales of the passed in Locale, most specific
+	 * first.
+	 * 
+	 * @return <code>true</code> if none or only the base bundle without Locale was found.
+	 */
+	private boolean loadCandidates(String bundleName, Locale locale, ResourceBundle.Control control,
+			ClassLoader cl, boolean reload, List<ResourceBundle> chain) {
+		boolean baseOnly = true;
+		for (Locale candidate : control.getCandidateLocales(bundleName, locale)) {
+			for (String format : control.getFormats(bundleName)) {
+				try {
+					ResourceBundle bundle = control.newBundle(bundleName, candidate, format, cl, reload);
+					if (bundle != null) {
+						chain.add(bundle);
+						baseOnly &= Locale.ROOT.equals(candidate);
+						break;
+					}
+				} catch (Exception e) {
+					LOG.logp(Level.WARNING, CLASS, "loadCandidates", "Cannot load " + bundleName + " for "
+							+ candidate, e);
+				}
+			}
+		}
+		return baseOnly;
 	}
 
 	/**
 	 * Return a Set with the real base-names of the multiple properties based resource bundles that
-	 * contribute to the full set of resources.
+	 * contribute to the full set of resources. The properties files of jar files and directories
+	 * are taken from the {@link PropertiesIndex} of the context ClassLoader, which scans each
+	 * location only once and keeps the base-names found for all Locales.
 	 * 
 	 * @param baseName
 	 *          the base-name that must be part of the properties file names.
@@ -213,7 +504,14 @@ public abstract class MultiplePropertiesResourceBundle extends ResourceBundle {
 		boolean isLoggable = LOG.isLoggable(Level.FINE);
 
 		ClassLoader cl = Thread.currentThread().getContextClassLoader();
-		List<String> bundleNames = new ArrayList<String>();
+		PropertiesIndex index = PropertiesIndex.forClassLoader(cl);
+		String indexKey = getResourcePath() + baseName;
+		List<String> bundleNames = index.getBaseNames(indexKey);
+		if (bundleNames != null) {
+			return bundleNames;
+		}
+		bundleNames = new ArrayList<String>();
+		boolean complete = false;
 		try {
 			String baseFileName = getBaseName(baseName) + ".properties";
 			String endFileName = baseName + ".properties";
@@ -234,23 +532,23 @@ public abstract class MultiplePropertiesResourceBundle extends ResourceBundle {
 					if (filename.startsWith("file:")) {
 						filename = filename.substring(5);
 					}
-					JarFile jar = new JarFile(filename);
-					for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
-						JarEntry entry = entries.nextElement();
-						String name = entry.getName();
+					for (String name : index.jarEntries(filename)) {
 						addMatchingNameOnce("", baseName, bundleNames, endFileName, name);
 					}
-					jar.close();
 				} else {
 					File dir = new File(jarUrl.getFile());
 					dir = dir.getParentFile();
 					if (dir.isDirectory()) {
-						for (String name : dir.list()) {
+						if (PropertiesWatcher.isEnabled()) {
+							PropertiesWatcher.watch(dir, index, indexKey);
+						}
+						for (String name : index.directoryEntries(dir)) {
 							addMatchingNameOnce(resourcePath, baseName, bundleNames, endFileName, name);
 						}
 					}
 				}
 			}
+			complete = true;
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -272,6 +570,10 @@ public abstract class MultiplePropertiesResourceBundle extends ResourceBundle {
 		if (isLoggable) {
 			LOG.logp(Level.FINE, CLASS, METHOD, "Combine ResourceBundles named: " + bundleNames);
 		}
+		if (complete) {
+			// a failed scan is retried by the next load instead of dropping bundles for good
+			index.putBaseNames(indexKey, bundleNames);
+		}
 		return bundleNames;
 	}
 
@@ -310,4 +612,23 @@ public abstract class MultiplePropertiesResourceBundle extends ResourceBundle {
 		}
 	}
 
+	/**
+	 * The merged keys together with the resources they were computed from.
+	 */
+	private static final class MergedKeys {
+
+		private final ResourceTable resources;
+
+		private final Set<String> parentKeys;
+
+		private final KeyArraySet keys;
+
+		private MergedKeys(ResourceTable resources, Set<String> parentKeys, KeyArraySet keys) {
+			this.resources = resources;
+			this.parentKeys = parentKeys;
+			this.keys = keys;
+		}
+
+	}
+
 }
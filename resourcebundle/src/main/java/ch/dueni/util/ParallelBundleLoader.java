@@ -0,0 +1,108 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Switch to load the properties files combined by a {@link MultiplePropertiesResourceBundle} in
+ * parallel, useful to shorten the first access when a base-name combines many properties files.
+ * The files are read and parsed on a bounded pool of daemon threads, the resources are still
+ * combined in the order of the base-names so which properties override others does not change.
+ * <p>
+ * Enable it by starting the JVM with
+ * <code>-Dch.dueni.util.ParallelBundleLoader=&lt;threads&gt;</code> or by calling
+ * {@link #enable(int)}, by default the properties files are loaded one after the other by the
+ * calling thread.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public final class ParallelBundleLoader {
+
+	/** system property with the number of threads to enable parallel loading at startup */
+	public static final String THREADS_PROPERTY = ParallelBundleLoader.class.getName();
+
+	/** the pool loading the properties files, <code>null</code> while disabled */
+	private static volatile ExecutorService executor;
+
+	static {
+		int threads = Integer.getInteger(THREADS_PROPERTY, 0).intValue();
+		if (threads > 0) {
+			enable(threads);
+		}
+	}
+
+	private ParallelBundleLoader() {
+	}
+
+	/**
+	 * Load the properties files of bundles loaded from now on with the passed in number of threads,
+	 * replacing the threads of a previous call.
+	 * 
+	 * @param threads
+	 *          the maximum number of properties files loaded at the same time.
+	 */
+	public static synchronized void enable(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be positive: " + threads);
+		}
+		disable();
+		executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ParallelBundleLoader-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				// the ClassLoader is passed with each load, do not keep the one of the first caller
+				thread.setContextClassLoader(null);
+				return thread;
+			}
+
+		});
+	}
+
+	/**
+	 * Load the properties files by the calling thread again, loads already running complete.
+	 */
+	public static synchronized void disable() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if properties files are loaded in parallel.
+	 */
+	public static boolean isEnabled() {
+		return executor != null;
+	}
+
+	/**
+	 * @return the pool to load with or <code>null</code> to load by the calling thread.
+	 */
+	static ExecutorService executor() {
+		return executor;
+	}
+
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <code>PropertiesIndex</code> remembers the properties file names found at each resource location
+ * - a jar file or a directory - of one ClassLoader. A jar is opened and walked once for the first
+ * {@link MultiplePropertiesResourceBundle} of any base-name and Locale finding its marker file, all
+ * later bundles use the names kept here.
+ * <p>
+ * Besides the scanned locations it keeps the base-names found per package and base-name, which do
+ * not depend on the Locale, and the combined resources per package, base-name and Locale. The
+ * combined resources are only weakly referenced: they are shared between all bundle instances
+ * combining the same properties files and released once the last such instance was dropped from
+ * the ResourceBundle cache.
+ * </p>
+ * <p>
+ * The index is kept per ClassLoader in a weak map, so it is dropped together with the ClassLoader
+ * of an undeployed application.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+final class PropertiesIndex {
+
+	private static final String CLASS = PropertiesIndex.class.getName();
+
+	/** private Logger instance */
+	private static final Logger LOG = Logger.getLogger(CLASS);
+
+	private static final String SUFFIX = ".properties";
+
+	/** the index per ClassLoader */
+	private static final Map<ClassLoader, PropertiesIndex> INDEXES = new WeakHashMap<ClassLoader, PropertiesIndex>();
+
+	/** properties file names per scanned jar file or directory */
+	private final Map<String, List<String>> namesByLocation = new HashMap<String, List<String>>();
+
+	/** real base-names per package and base-name */
+	private final Map<String, List<String>> baseNames = new HashMap<String, List<String>>();
+
+	/** combined resources per package and base-name, then Locale */
+	private final Map<String, Map<Locale, WeakReference<ResourceTable>>> combined = new HashMap<String, Map<Locale, WeakReference<ResourceTable>>>();
+
+	private PropertiesIndex() {
+	}
+
+	/**
+	 * Return the index of the passed in ClassLoader, create it if not yet done.
+	 * 
+	 * @param cl
+	 *          the ClassLoader the resource locations belong to.
+	 * @return the index of the ClassLoader.
+	 */
+	static PropertiesIndex forClassLoader(ClassLoader cl) {
+		synchronized (INDEXES) {
+			PropertiesIndex index = INDEXES.get(cl);
+			if (index == null) {
+				index = new PropertiesIndex();
+				INDEXES.put(cl, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Return the names of all properties entries of the jar file, including their path.
+	 * 
+	 * @param jarFileName
+	 *          the file name of the jar.
+	 * @return the properties entry names of the jar file.
+	 * @throws IOException
+	 *           if the jar file cannot be read.
+	 */
+	synchronized List<String> jarEntries(String jarFileName) throws IOException {
+		List<String> names = namesByLocation.get(jarFileName);
+		if (names == null) {
+			if (LOG.isLoggable(Level.FINE)) {
+				LOG.logp(Level.FINE, CLASS, "jarEntries", "scanning jar " + jarFileName);
+			}
+			names = new ArrayList<String>();
+			JarFile jar = new JarFile(jarFileName);
+			try {
+				for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+					String name = entries.nextElement().getName();
+					if (name.endsWith(SUFFIX)) {
+						names.add(name);
+					}
+				}
+			} finally {
+				jar.close();
+			}
+			names = Collections.unmodifiableList(names);
+			namesByLocation.put(jarFileName, names);
+		}
+		return names;
+	}
+
+	/**
+	 * Return the names of all properties files of the directory, without path.
+	 * 
+	 * @param dir
+	 *          the directory to list.
+	 * @return the properties file names of the directory.
+	 */
+	synchronized List<String> directoryEntries(File dir) {
+		String location = dir.getAbsolutePath();
+		List<String> names = namesByLocation.get(location);
+		if (names == null) {
+			if (LOG.isLoggable(Level.FINE)) {
+				LOG.logp(Level.FINE, CLASS, "directoryEntries", "listing directory " + location);
+			}
+			names = new ArrayList<String>();
+			String[] list = dir.list();
+			if (list != null) {
+				for (String name : list) {
+					if (name.endsWith(SUFFIX)) {
+						names.add(name);
+					}
+				}
+			}
+			names = Collections.unmodifiableList(names);
+			namesByLocation.put(location, names);
+		}
+		return names;
+	}
+
+	/**
+	 * Return the real base-names found before for the key.
+	 * 
+	 * @param key
+	 *          package and base-name.
+	 * @return the base-names or <code>null</code> if not yet found.
+	 */
+	synchronized List<String> getBaseNames(String key) {
+		return baseNames.get(key);
+	}
+
+	/**
+	 * Keep the real base-names found for the key.
+	 * 
+	 * @param key
+	 *          package and base-name.
+	 * @param names
+	 *          the base-names found, must not be changed any more.
+	 */
+	synchronized void putBaseNames(String key, List<String> names) {
+		baseNames.put(key, Collections.unmodifiableList(names));
+	}
+
+	/**
+	 * Return the combined resources kept for the key and Locale.
+	 * 
+	 * @param key
+	 *          package and base-name.
+	 * @param locale
+	 *          the Locale of the combined resources.
+	 * @return the combined resources or <code>null</code> if not loaded, already released or stale.
+	 */
+	synchronized ResourceTable getCombined(String key, Locale locale) {
+		Map<Locale, WeakReference<ResourceTable>> byLocale = combined.get(key);
+		if (byLocale == null) {
+			return null;
+		}
+		WeakReference<ResourceTable> ref = byLocale.get(locale);
+		ResourceTable resources = ref == null ? null : ref.get();
+		return resources == null || resources.isStale() ? null : resources;
+	}
+
+	/**
+	 * Keep the combined resources for the key and Locale, unless another thread was faster.
+	 * 
+	 * @param key
+	 *          package and base-name.
+	 * @param locale
+	 *          the Locale of the combined resources.
+	 * @param resources
+	 *          the combined resources.
+	 * @return the combined resources to use, either the passed in or those kept before.
+	 */
+	synchronized ResourceTable putCombined(String key, Locale locale, ResourceTable resources) {
+		ResourceTable existing = getCombined(key, locale);
+		if (existing != null) {
+			return existing;
+		}
+		Map<Locale, WeakReference<ResourceTable>> byLocale = combined.get(key);
+		if (byLocale == null) {
+			byLocale = new HashMap<Locale, WeakReference<ResourceTable>>();
+			combined.put(key, byLocale);
+		}
+		byLocale.put(locale, new WeakReference<ResourceTable>(resources));
+		return resources;
+	}
+
+	/**
+	 * Forget what is known about the directory and the base-names found in it and mark their
+	 * combined resources of all Locales stale, so they get reloaded on next access.
+	 * 
+	 * @param dir
+	 *          the directory which changed.
+	 * @param keys
+	 *          package and base-name of the bundles combining properties files of the directory.
+	 */
+	synchronized void invalidate(File dir, Collection<String> keys) {
+		namesByLocation.remove(dir.getAbsolutePath());
+		for (String key : keys) {
+			baseNames.remove(key);
+			Map<Locale, WeakReference<ResourceTable>> byLocale = combined.remove(key);
+			if (byLocale != null) {
+				for (WeakReference<ResourceTable> ref : byLocale.values()) {
+					ResourceTable resources = ref.get();
+					if (resources != null) {
+						resources.markStale();
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <code>PropertiesWatcher</code> is the opt-in hot reload of {@link MultiplePropertiesResourceBundle}
+ * for development and operations: it watches the directories the properties files were found in and
+ * on change of a properties file marks the combined resources using that directory stale. The
+ * bundles then reload them on next access, bypassing URL caches, and swap in the new resources as a
+ * whole - other combined bundles and properties files in jars are not touched.
+ * <p>
+ * Enable it by starting the JVM with <code>-Dch.dueni.util.PropertiesWatcher=true</code> or by
+ * calling {@link #enable()} before the bundles are loaded first, only directories scanned while
+ * enabled are watched. The watching runs in a daemon thread.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+public final class PropertiesWatcher implements Runnable {
+
+	private static final String CLASS = PropertiesWatcher.class.getName();
+
+	/** private Logger instance */
+	private static final Logger LOG = Logger.getLogger(CLASS);
+
+	/** system property to enable watching at startup */
+	public static final String ENABLED_PROPERTY = CLASS;
+
+	/** the running watcher, <code>null</code> while disabled */
+	private static volatile PropertiesWatcher instance;
+
+	static {
+		if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+			enable();
+		}
+	}
+
+	private final WatchService service;
+
+	private final Thread thread;
+
+	/** the bundles combining properties files per watched directory */
+	private final Map<Path, List<Registration>> watched = new HashMap<Path, List<Registration>>();
+
+	private PropertiesWatcher() throws IOException {
+		service = FileSystems.getDefault().newWatchService();
+		thread = new Thread(this, "PropertiesWatcher");
+		thread.setDaemon(true);
+		// do not keep the ClassLoader of the web application enabling the watcher
+		thread.setContextClassLoader(null);
+	}
+
+	/**
+	 * Start watching the directories of the bundles loaded from now on.
+	 */
+	public static synchronized void enable() {
+		if (instance == null) {
+			try {
+				PropertiesWatcher watcher = new PropertiesWatcher();
+				watcher.thread.start();
+				instance = watcher;
+			} catch (IOException e) {
+				LOG.logp(Level.WARNING, CLASS, "enable", "Cannot watch properties files", e);
+			}
+		}
+	}
+
+	/**
+	 * Stop watching, the resources loaded so far are kept.
+	 */
+	public static synchronized void disable() {
+		if (instance != null) {
+			try {
+				instance.service.close();
+			} catch (IOException e) {
+				LOG.logp(Level.WARNING, CLASS, "disable", "Cannot close watch service", e);
+			}
+			instance = null;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if directories are watched.
+	 */
+	public static boolean isEnabled() {
+		return instance != null;
+	}
+
+	/**
+	 * Watch the directory for changed properties files of the bundles with the passed in package and
+	 * base-name.
+	 * 
+	 * @param dir
+	 *          the directory containing properties files.
+	 * @param index
+	 *          the index of the ClassLoader the directory was found with.
+	 * @param key
+	 *          package and base-name of the bundles.
+	 */
+	static void watch(File dir, PropertiesIndex index, String key) {
+		PropertiesWatcher watcher = instance;
+		if (watcher != null) {
+			watcher.register(dir.toPath(), index, key);
+		}
+	}
+
+	private synchronized void register(Path dir, PropertiesIndex index, String key) {
+		List<Registration> registrations = watched.get(dir);
+		if (registrations == null) {
+			try {
+				dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+			} catch (IOException e) {
+				LOG.logp(Level.WARNING, CLASS, "register", "Cannot watch " + dir, e);
+				return;
+			} catch (ClosedWatchServiceException e) {
+				return;
+			}
+			registrations = new ArrayList<Registration>();
+			watched.put(dir, registrations);
+			if (LOG.isLoggable(Level.FINE)) {
+				LOG.logp(Level.FINE, CLASS, "register", "watching " + dir);
+			}
+		}
+		for (Registration registration : registrations) {
+			if (registration.index.get() == index && registration.key.equals(key)) {
+				return;
+			}
+		}
+		registrations.add(new Registration(index, key));
+	}
+
+	private synchronized List<Registration> registrations(Path dir) {
+		List<Registration> registrations = watched.get(dir);
+		return registrations == null ? Collections.<Registration> emptyList()
+				: new ArrayList<Registration>(registrations);
+	}
+
+	private synchronized void unregister(Path dir) {
+		watched.remove(dir);
+	}
+
+	/**
+	 * Wait for changes until the watch service is closed.
+	 */
+	public void run() {
+		try {
+			while (true) {
+				WatchKey watchKey = service.take();
+				Path dir = (Path)watchKey.watchable();
+				boolean changed = false;
+				for (WatchEvent<?> event : watchKey.pollEvents()) {
+					changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+							|| event.context().toString().endsWith(".properties");
+				}
+				if (changed) {
+					invalidate(dir);
+				}
+				if (!watchKey.reset()) {
+					unregister(dir);
+				}
+			}
+		} catch (ClosedWatchServiceException e) {
+			// disabled
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void invalidate(Path dir) {
+		if (LOG.isLoggable(Level.FINE)) {
+			LOG.logp(Level.FINE, CLASS, "invalidate", "properties changed in " + dir);
+		}
+		File file = dir.toFile();
+		for (Registration registration : registrations(dir)) {
+			PropertiesIndex index = registration.index.get();
+			if (index != null) {
+				index.invalidate(file, Collections.singleton(registration.key));
+			}
+		}
+	}
+
+	/**
+	 * The bundles of one package and base-name using a watched directory.
+	 */
+	private static class Registration {
+
+		/** weak to not keep the index of an undeployed application */
+		final WeakReference<PropertiesIndex> index;
+
+		final String key;
+
+		Registration(PropertiesIndex index, String key) {
+			this.index = new WeakReference<PropertiesIndex>(index);
+			this.key = key;
+		}
+	}
+
+}
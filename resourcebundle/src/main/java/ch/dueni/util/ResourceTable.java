@@ -0,0 +1,152 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <code>ResourceTable</code> is the read-only store of the combined resources of a
+ * {@link MultiplePropertiesResourceBundle}: the keys are kept interned in a sorted array, the values
+ * in a parallel array, both exactly sized. A lookup is a binary search, which costs two array slots
+ * per resource instead of the entry object and table slot of a HashMap.
+ * <p>
+ * The keys are interned, so a key is held only once for all Locales of a bundle. The values are the
+ * instances read from the properties files.
+ * </p>
+ * <p>
+ * A table is never changed, on hot reload it is only marked stale and replaced by a new one.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+final class ResourceTable extends AbstractMap<String, Object> {
+
+	private final String[] keys;
+
+	private final Object[] values;
+
+	private final KeyArraySet keySet;
+
+	/** set by the {@link PropertiesWatcher} once a properties file of this table changed */
+	private volatile boolean stale;
+
+	/**
+	 * Create the table holding the resources of the passed in map.
+	 * 
+	 * @param resources
+	 *          the resources to hold.
+	 */
+	ResourceTable(Map<String, Object> resources) {
+		int size = resources.size();
+		keys = new String[size];
+		int i = 0;
+		for (String key : resources.keySet()) {
+			keys[i++] = key.intern();
+		}
+		Arrays.sort(keys);
+		values = new Object[size];
+		for (i = 0; i < size; i++) {
+			values[i] = resources.get(keys[i]);
+		}
+		keySet = new KeyArraySet(keys);
+	}
+
+	@Override
+	public Object get(Object key) {
+		int index = indexOf(key);
+		return index < 0 ? null : values[index];
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public int size() {
+		return keys.length;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return keySet;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return new AbstractSet<Map.Entry<String, Object>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, Object>> iterator() {
+				return new Iterator<Map.Entry<String, Object>>() {
+
+					private int next;
+
+					public boolean hasNext() {
+						return next < keys.length;
+					}
+
+					public Map.Entry<String, Object> next() {
+						if (next >= keys.length) {
+							throw new NoSuchElementException();
+						}
+						int index = next++;
+						return new SimpleImmutableEntry<String, Object>(keys[index], values[index]);
+					}
+
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return keys.length;
+			}
+		};
+	}
+
+	/**
+	 * @return <code>true</code> if a properties file of this table changed since it was loaded.
+	 */
+	boolean isStale() {
+		return stale;
+	}
+
+	/**
+	 * Mark this table to be reloaded by the bundles using it.
+	 */
+	void markStale() {
+		stale = true;
+	}
+
+	private int indexOf(Object key) {
+		if (!(key instanceof String)) {
+			return -1;
+		}
+		return Arrays.binarySearch(keys, key);
+	}
+
+}
@@ -2,14 +2,12 @@ package ch.dueni.util;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLConnection;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Locale;
-import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
 
 /**
@@ -73,8 +71,9 @@ public class UTF8Control extends ResourceBundle.Control {
             }
             if (stream != null) {
                 try {
-                    // Only this line is changed to make it to read properties files as UTF-8.
-                bundle = new PropertyResourceBundle(new InputStreamReader(stream, "UTF-8"));
+                    // Only this line is changed to read properties files as UTF-8, parsed
+                    // directly from the bytes into a compact read-only bundle.
+                    bundle = new CompactPropertiesBundle(stream);
                 } finally {
                     stream.close();
                 }
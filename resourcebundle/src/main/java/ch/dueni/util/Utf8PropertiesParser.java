@@ -0,0 +1,328 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <code>Utf8PropertiesParser</code> reads a properties file from UTF-8 encoded bytes following the
+ * rules of {@link java.util.Properties#load(java.io.Reader)}: comment lines starting with '#' or
+ * '!', key and value separated by '=', ':' or white space, continuation lines ending with an odd
+ * number of backslashes and the escapes \t, \n, \r, \f and \\uXXXX.
+ * <p>
+ * The bytes are decoded while parsing from one reused buffer into one reused char array per key
+ * or value, there is no Reader in between and no synchronized Hashtable is filled. A leading byte
+ * order mark is skipped, malformed UTF-8 sequences are read as U+FFFD like the replacing decoder
+ * of an InputStreamReader does.
+ * </p>
+ * 
+ * @author Hanspeter D&uuml;nnenberger
+ */
+final class Utf8PropertiesParser {
+
+	private static final int EOF = -1;
+
+	private static final char REPLACEMENT = '\uFFFD';
+
+	private final InputStream in;
+
+	private final byte[] buffer = new byte[8192];
+
+	private int pos;
+
+	private int limit;
+
+	/** the character read ahead by {@link #unread(int)}, EOF if none */
+	private int pushedBack = EOF;
+
+	/** the low surrogate of a supplementary character to return next, 0 if none */
+	private char pendingLow;
+
+	private char[] chars = new char[128];
+
+	private int length;
+
+	private Utf8PropertiesParser(InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * Read all key/value pairs of the stream, a key repeated later overrides the earlier value.
+	 * 
+	 * @param in
+	 *          the UTF-8 encoded properties, not closed by this method.
+	 * @return the properties read.
+	 * @throws IOException
+	 *           if reading the stream fails.
+	 * @throws IllegalArgumentException
+	 *           if a \\uXXXX escape is malformed.
+	 */
+	static Map<String, Object> parse(InputStream in) throws IOException {
+		Map<String, Object> properties = new HashMap<String, Object>();
+		new Utf8PropertiesParser(in).parseInto(properties);
+		return properties;
+	}
+
+	private void parseInto(Map<String, Object> properties) throws IOException {
+		int c = read();
+		if (c == '\uFEFF') {
+			c = read();
+		}
+		while (c != EOF) {
+			c = skipWhitespace(c);
+			if (c == '#' || c == '!') {
+				c = skipLine();
+				continue;
+			}
+			if (isLineEnd(c)) {
+				c = read();
+				continue;
+			}
+			if (c == EOF) {
+				break;
+			}
+			// key
+			length = 0;
+			while (c != EOF && !isLineEnd(c) && c != '=' && c != ':' && !isWhitespace(c)) {
+				c = appendOrContinue(c);
+			}
+			String key = new String(chars, 0, length);
+			// separator
+			c = skipWhitespaceContinued(c);
+			if (c == '=' || c == ':') {
+				c = skipWhitespaceContinued(read());
+			}
+			// value
+			length = 0;
+			while (c != EOF && !isLineEnd(c)) {
+				c = appendOrContinue(c);
+			}
+			properties.put(key, new String(chars, 0, length));
+		}
+	}
+
+	/**
+	 * Append the character or the escape starting with it and return the next character. A
+	 * backslash at the end of the line continues with the first non white space character of the
+	 * next line.
+	 */
+	private int appendOrContinue(int c) throws IOException {
+		if (c != '\\') {
+			append((char)c);
+			return read();
+		}
+		c = read();
+		switch (c) {
+		case EOF:
+			return EOF;
+		case '\r':
+		case '\n':
+			return skipWhitespace(skipLineEnd(c));
+		case 't':
+			append('\t');
+			break;
+		case 'n':
+			append('\n');
+			break;
+		case 'r':
+			append('\r');
+			break;
+		case 'f':
+			append('\f');
+			break;
+		case 'u':
+			append(readUnicodeEscape());
+			break;
+		default:
+			append((char)c);
+		}
+		return read();
+	}
+
+	private char readUnicodeEscape() throws IOException {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			int c = read();
+			int digit = c == EOF ? -1 : Character.digit((char)c, 16);
+			if (digit < 0) {
+				throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+			}
+			value = (value << 4) + digit;
+		}
+		return (char)value;
+	}
+
+	/**
+	 * Skip white space between key and value, which may span continuation lines.
+	 */
+	private int skipWhitespaceContinued(int c) throws IOException {
+		while (true) {
+			c = skipWhitespace(c);
+			if (c != '\\') {
+				return c;
+			}
+			int next = read();
+			if (next == '\r' || next == '\n') {
+				c = skipLineEnd(next);
+			} else {
+				unread(next);
+				return c;
+			}
+		}
+	}
+
+	private int skipWhitespace(int c) throws IOException {
+		while (isWhitespace(c)) {
+			c = read();
+		}
+		return c;
+	}
+
+	/**
+	 * Skip the rest of a comment line including its line end.
+	 */
+	private int skipLine() throws IOException {
+		int c = read();
+		while (c != EOF && !isLineEnd(c)) {
+			c = read();
+		}
+		return c == EOF ? EOF : skipLineEnd(c);
+	}
+
+	/**
+	 * Skip the line end starting with c, which is '\r', '\n' or "\r\n", and return the character
+	 * after it.
+	 */
+	private int skipLineEnd(int c) throws IOException {
+		int next = read();
+		if (c == '\r' && next == '\n') {
+			next = read();
+		}
+		return next;
+	}
+
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\t' || c == '\f';
+	}
+
+	private static boolean isLineEnd(int c) {
+		return c == '\n' || c == '\r';
+	}
+
+	private void append(char c) {
+		if (length == chars.length) {
+			char[] grown = new char[length * 2];
+			System.arraycopy(chars, 0, grown, 0, length);
+			chars = grown;
+		}
+		chars[length++] = c;
+	}
+
+	private void unread(int c) {
+		pushedBack = c;
+	}
+
+	/**
+	 * Return the next UTF-16 char decoded from the UTF-8 bytes, EOF at the end of the stream.
+	 */
+	private int read() throws IOException {
+		if (pushedBack != EOF) {
+			int c = pushedBack;
+			pushedBack = EOF;
+			return c;
+		}
+		if (pendingLow != 0) {
+			char c = pendingLow;
+			pendingLow = 0;
+			return c;
+		}
+		int b = readByte();
+		if (b < 0x80) {
+			return b;
+		}
+		int needed;
+		int min;
+		int cp;
+		if (b >= 0xC2 && b <= 0xDF) {
+			needed = 1;
+			min = 0x80;
+			cp = b & 0x1F;
+		} else if (b >= 0xE0 && b <= 0xEF) {
+			needed = 2;
+			min = 0x800;
+			cp = b & 0x0F;
+		} else if (b >= 0xF0 && b <= 0xF4) {
+			needed = 3;
+			min = 0x10000;
+			cp = b & 0x07;
+		} else {
+			return REPLACEMENT;
+		}
+		for (int i = 0; i < needed; i++) {
+			int next = peekByte();
+			if ((next & 0xC0) != 0x80) {
+				// leave the unexpected byte for the next character
+				return REPLACEMENT;
+			}
+			pos++;
+			cp = (cp << 6) | (next & 0x3F);
+		}
+		if (cp < min || cp > Character.MAX_CODE_POINT || (cp >= 0xD800 && cp <= 0xDFFF)) {
+			return REPLACEMENT;
+		}
+		if (cp >= 0x10000) {
+			pendingLow = Character.lowSurrogate(cp);
+			return Character.highSurrogate(cp);
+		}
+		return cp;
+	}
+
+	private int readByte() throws IOException {
+		if (pos == limit && !fill()) {
+			return EOF;
+		}
+		return buffer[pos++] & 0xFF;
+	}
+
+	/**
+	 * Return the next byte without consuming it, EOF at the end of the stream.
+	 */
+	private int peekByte() throws IOException {
+		if (pos == limit && !fill()) {
+			return EOF;
+		}
+		return buffer[pos] & 0xFF;
+	}
+
+	private boolean fill() throws IOException {
+		int n = in.read(buffer, 0, buffer.length);
+		while (n == 0) {
+			n = in.read(buffer, 0, buffer.length);
+		}
+		if (n < 0) {
+			return false;
+		}
+		pos = 0;
+		limit = n;
+		return true;
+	}
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import org.junit.Test;
+
+public class CompactPropertiesBundleTest {
+
+	@Test
+	public void readUtf8() throws IOException {
+		CompactPropertiesBundle bundle = new CompactPropertiesBundle(new ByteArrayInputStream(
+				"greeting=gr\u00FCezi\nfarewell=adi\u00F6\n".getBytes("UTF-8")));
+		assertEquals("gr\u00FCezi", bundle.getString("greeting"));
+		assertEquals("adi\u00F6", bundle.getObject("farewell"));
+		assertNull(bundle.handleGetObject("missing"));
+		assertTrue(bundle.containsKey("greeting"));
+		assertFalse(bundle.containsKey("missing"));
+		assertEquals(new HashSet<String>(Arrays.asList("greeting", "farewell")), bundle.keySet());
+		Enumeration<String> keys = bundle.getKeys();
+		assertEquals(new HashSet<String>(Arrays.asList("greeting", "farewell")), new HashSet<String>(
+				Collections.list(keys)));
+	}
+
+	@Test
+	public void loadedByUtf8Control() {
+		Locale.setDefault(Locale.ROOT);
+		ResourceBundle bundle = ResourceBundle.getBundle("more-resources", Locale.GERMAN,
+				new UTF8Control());
+		assertTrue(bundle instanceof CompactPropertiesBundle);
+		assertEquals("more1(de)", bundle.getString("more1"));
+	}
+
+}
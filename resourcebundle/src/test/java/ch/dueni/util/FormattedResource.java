@@ -0,0 +1,9 @@
+package ch.dueni.util;
+
+public class FormattedResource extends MultiplePropertiesResourceBundle {
+
+	public FormattedResource() {
+		super("ch.dueni.util.format", "messages");
+	}
+
+}
@@ -0,0 +1,5 @@
+package ch.dueni.util;
+
+public class FormattedResource_de extends FormattedResource {
+
+}
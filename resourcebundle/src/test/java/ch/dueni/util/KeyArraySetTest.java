@@ -0,0 +1,63 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+public class KeyArraySetTest {
+
+	@Test
+	public void containsAndIterate() {
+		KeyArraySet set = new KeyArraySet(new String[] { "a", "b", "c" });
+		assertEquals(3, set.size());
+		assertTrue(set.contains("b"));
+		assertFalse(set.contains("d"));
+		assertFalse(set.contains(Integer.valueOf(1)));
+		assertEquals(Arrays.asList("a", "b", "c"), Collections.list(set.enumeration()));
+		Iterator<String> iterator = set.iterator();
+		assertEquals("a", iterator.next());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void readOnly() {
+		Iterator<String> iterator = new KeyArraySet(new String[] { "a" }).iterator();
+		iterator.next();
+		iterator.remove();
+	}
+
+	@Test
+	public void union() {
+		KeyArraySet set = new KeyArraySet(new String[] { "b", "d" });
+		assertSame(set, set.union(Arrays.asList("d", "b")));
+		KeyArraySet merged = set.union(Arrays.asList("e", "a", "b", "c"));
+		Enumeration<String> keys = merged.enumeration();
+		assertEquals(Arrays.asList("a", "b", "c", "d", "e"), Collections.list(keys));
+		assertEquals(2, set.size());
+	}
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MessageCatalogTest {
+
+	private File dir;
+
+	@Before
+	public void beforeTest() throws IOException {
+		dir = File.createTempFile("catalog", "");
+		assertTrue(dir.delete());
+		assertTrue(dir.mkdir());
+		Locale.setDefault(Locale.ROOT);
+		ResourceBundle.clearCache();
+	}
+
+	@After
+	public void afterTest() {
+		ResourceBundle.clearCache();
+		delete(dir);
+	}
+
+	@Test
+	public void writeAndRead() throws IOException {
+		Map<String, Object> resources = new HashMap<String, Object>();
+		for (int i = 0; i < 1000; i++) {
+			resources.put("key" + i, "value " + i);
+		}
+		// same hash code
+		resources.put("Aa", "first");
+		resources.put("BB", "second");
+		resources.put("gr\u00fcezi", "Gr\u00fcezi m\u00e4teinand \u20ac");
+		resources.put("", "empty key");
+		MessageCatalog catalog = read(resources);
+		assertEquals(resources.size(), catalog.size());
+		for (Map.Entry<String, Object> entry : resources.entrySet()) {
+			assertEquals(entry.getValue(), catalog.get(entry.getKey()));
+		}
+		assertEquals("first", catalog.get("Aa"));
+		assertNull(catalog.get("missing"));
+		assertEquals(resources.keySet(), new HashSet<String>(catalog.keys()));
+	}
+
+	@Test
+	public void empty() throws IOException {
+		MessageCatalog catalog = read(new HashMap<String, Object>());
+		assertEquals(0, catalog.size());
+		assertNull(catalog.get("any"));
+	}
+
+	@Test(expected = IOException.class)
+	public void notACatalog() throws IOException {
+		new MessageCatalog(ByteBuffer.wrap("key=value\n".getBytes("UTF-8")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void onlyStrings() throws IOException {
+		Map<String, Object> resources = new HashMap<String, Object>();
+		resources.put("number", Integer.valueOf(1));
+		read(resources);
+	}
+
+	@Test
+	public void compileAndLoad() throws IOException {
+		List<File> files = MessageCatalogCompiler.compile(dir, "ch.dueni.util.CombinedResource", Arrays
+				.asList(Locale.GERMAN, Locale.ENGLISH, Locale.FRENCH));
+		assertEquals(3, files.size());
+		assertTrue(new File(dir, "ch/dueni/util/CombinedResource_de.catalog").isFile());
+
+		ClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass()
+				.getClassLoader());
+		ResourceBundle bundle = ResourceBundle.getBundle("ch.dueni.util.CombinedResource",
+				Locale.GERMAN, loader, new MessageCatalogControl());
+		assertTrue(bundle instanceof MessageCatalogBundle);
+		assertEquals("res1(de)", bundle.getString("res1"));
+		assertEquals("res3more(de)", bundle.getString("res3"));
+		assertEquals("more3(de)", bundle.getString("more3"));
+		assertEquals(6, bundle.keySet().size());
+		Set<String> keys = ((MessageCatalogBundle)bundle).handleKeySet();
+		assertSame(keys, ((MessageCatalogBundle)bundle).handleKeySet());
+		assertTrue(keys.contains("more3"));
+
+		bundle = ResourceBundle.getBundle("ch.dueni.util.CombinedResource", Locale.FRENCH, loader,
+				new MessageCatalogControl());
+		assertTrue(bundle instanceof MessageCatalogBundle);
+		assertEquals("res1", bundle.getString("res1"));
+		assertEquals("res3more", bundle.getString("res3"));
+	}
+
+	@Test
+	public void withoutCatalog() {
+		ResourceBundle bundle = ResourceBundle.getBundle("ch.dueni.util.CombinedResource",
+				Locale.ENGLISH, getClass().getClassLoader(), new MessageCatalogControl());
+		assertFalse(bundle instanceof MessageCatalogBundle);
+		assertEquals("res1(en)", bundle.getString("res1"));
+	}
+
+	private MessageCatalog read(Map<String, Object> resources) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MessageCatalog.write(resources, out);
+		return new MessageCatalog(ByteBuffer.wrap(out.toByteArray()));
+	}
+
+	private void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class MessageFormatCacheTest {
+
+	@Test
+	public void formatCombined() {
+		Locale.setDefault(Locale.ROOT);
+		FormattedResource bundle = (FormattedResource)ResourceBundle
+				.getBundle("ch.dueni.util.FormattedResource");
+		assertEquals("Welcome Hans", bundle.format("welcome", "Hans"));
+		assertEquals("You have 1 new message", bundle.format("count", Integer.valueOf(1)));
+		assertEquals("You have 3 new messages", bundle.format("count", Integer.valueOf(3)));
+		assertEquals("It's me", bundle.format("quoted", "me"));
+		assertEquals("1,234.50 CHF", bundle.format("total", Double.valueOf(1234.5)));
+	}
+
+	@Test
+	public void formatCombined_de() {
+		Locale.setDefault(Locale.GERMAN);
+		FormattedResource bundle = (FormattedResource)ResourceBundle
+				.getBundle("ch.dueni.util.FormattedResource");
+		assertEquals("Willkommen Hans", bundle.format("welcome", "Hans"));
+		assertEquals("Sie haben 3 neue Nachrichten", bundle.format("count", Integer.valueOf(3)));
+		assertEquals("It's me", bundle.format("quoted", "me"));
+		assertEquals("1.234,50 CHF", bundle.format("total", Double.valueOf(1234.5)));
+	}
+
+	@Test(expected = MissingResourceException.class)
+	public void formatMissing() {
+		Locale.setDefault(Locale.ROOT);
+		FormattedResource bundle = (FormattedResource)ResourceBundle
+				.getBundle("ch.dueni.util.FormattedResource");
+		bundle.format("missing");
+	}
+
+	@Test
+	public void bounded() {
+		MessageFormatCache cache = new MessageFormatCache(Locale.ROOT, 2);
+		assertEquals("a1", cache.format("a", "a{0}", new Object[] { "1" }));
+		assertEquals("b1", cache.format("b", "b{0}", new Object[] { "1" }));
+		assertEquals("a2", cache.format("a", "a{0}", new Object[] { "2" }));
+		assertEquals("c1", cache.format("c", "c{0}", new Object[] { "1" }));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void changedPattern() {
+		MessageFormatCache cache = new MessageFormatCache(Locale.ROOT, 2);
+		assertEquals("old 1", cache.format("a", "old {0}", new Object[] { "1" }));
+		assertEquals("new 1", cache.format("a", "new {0}", new Object[] { "1" }));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void concurrentFormat() throws Exception {
+		final MessageFormatCache cache = new MessageFormatCache(Locale.ROOT, 4);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < 2000; i++) {
+				final int n = i;
+				results.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() {
+						String key = "k" + (n % 6);
+						return cache.format(key, key + " {0}", new Object[] { String.valueOf(n) });
+					}
+				}));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals("k" + (i % 6) + " " + i, results.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(4, cache.size());
+	}
+
+}
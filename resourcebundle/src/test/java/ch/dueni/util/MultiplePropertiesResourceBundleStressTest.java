@@ -0,0 +1,87 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Let many threads hit the same, not yet loaded bundle instance. Each round uses a new context
+ * ClassLoader, so the combined resources are not taken from the {@link PropertiesIndex} of an
+ * earlier round.
+ */
+public class MultiplePropertiesResourceBundleStressTest {
+
+	private static final int THREADS = 8;
+
+	private static final int ROUNDS = 50;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+	@After
+	public void afterTest() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void concurrentFirstAccess() throws Exception {
+		Locale.setDefault(Locale.GERMAN);
+		final ClassLoader parent = Thread.currentThread().getContextClassLoader();
+		for (int round = 0; round < ROUNDS; round++) {
+			ResourceBundle.clearCache();
+			final ClassLoader roundLoader = new ClassLoader(parent) {
+			};
+			final ResourceBundle bundle = ResourceBundle.getBundle("ch.dueni.util.CombinedResource");
+			final CyclicBarrier start = new CyclicBarrier(THREADS);
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						Thread.currentThread().setContextClassLoader(roundLoader);
+						try {
+							start.await();
+							assertEquals("res1(de)", bundle.getString("res1"));
+							assertEquals("res3more(de)", bundle.getString("res3"));
+							assertEquals("more3(de)", bundle.getString("more3"));
+							return Integer.valueOf(bundle.keySet().size());
+						} finally {
+							Thread.currentThread().setContextClassLoader(parent);
+						}
+					}
+				}));
+			}
+			for (Future<Integer> result : results) {
+				assertEquals(Integer.valueOf(6), result.get());
+			}
+		}
+	}
+
+}
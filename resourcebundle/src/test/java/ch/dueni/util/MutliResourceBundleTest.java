@@ -2,10 +2,17 @@ package ch.dueni.util;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class MutliResourceBundleTest {
 	
@@ -87,4 +94,16 @@ public class MutliResourceBundleTest {
         assertEquals(6, bundle.keySet().size());
     }
 
+	@Test
+	public void keysCached_de() {
+		Locale.setDefault(Locale.GERMAN);
+		ResourceBundle bundle = ResourceBundle.getBundle("ch.dueni.util.CombinedResource");
+		Set<String> keys = bundle.keySet();
+		assertSame(keys, bundle.keySet());
+		assertTrue(keys.contains("more3"));
+		assertFalse(keys.contains("missing"));
+		List<String> enumerated = Collections.list(bundle.getKeys());
+		assertEquals(Arrays.asList("more1", "more2", "more3", "res1", "res2", "res3"), enumerated);
+	}
+
 }
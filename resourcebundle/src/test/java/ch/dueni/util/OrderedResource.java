@@ -0,0 +1,9 @@
+package ch.dueni.util;
+
+public class OrderedResource extends MultiplePropertiesResourceBundle {
+
+	public OrderedResource() {
+		super("ordered");
+	}
+
+}
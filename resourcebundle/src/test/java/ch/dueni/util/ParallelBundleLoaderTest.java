@@ -0,0 +1,133 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelBundleLoaderTest {
+
+	private static final int FILES = 40;
+
+	private File dir;
+
+	private ClassLoader contextLoader;
+
+	@Before
+	public void beforeTest() throws IOException {
+		dir = File.createTempFile("ordered", "");
+		assertTrue(dir.delete());
+		assertTrue(dir.mkdir());
+		write("ordered.properties", "winner=ordered\nbase=base\n");
+		for (int i = 0; i < FILES; i++) {
+			String name = String.format("m%02d", Integer.valueOf(i));
+			write(name + "-ordered.properties", "winner=" + name + "\n" + name + "=" + name + "\n");
+		}
+		contextLoader = Thread.currentThread().getContextClassLoader();
+		Locale.setDefault(Locale.ROOT);
+		ParallelBundleLoader.enable(4);
+	}
+
+	@After
+	public void afterTest() {
+		ParallelBundleLoader.disable();
+		Thread.currentThread().setContextClassLoader(contextLoader);
+		ResourceBundle.clearCache();
+		for (File file : dir.listFiles()) {
+			file.delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void loadInOrder() throws IOException {
+		assertTrue(ParallelBundleLoader.isEnabled());
+		for (int round = 0; round < 10; round++) {
+			ResourceBundle bundle = load();
+			assertEquals("m39", bundle.getString("winner"));
+			assertEquals("base", bundle.getString("base"));
+			assertEquals("m07", bundle.getString("m07"));
+			assertEquals(FILES + 2, bundle.keySet().size());
+		}
+	}
+
+	@Test
+	public void disabled() throws IOException {
+		ParallelBundleLoader.disable();
+		assertFalse(ParallelBundleLoader.isEnabled());
+		ResourceBundle bundle = load();
+		assertEquals("m39", bundle.getString("winner"));
+		assertEquals(FILES + 2, bundle.keySet().size());
+	}
+
+	@Test
+	public void workersKeepNoContextLoader() throws Exception {
+		Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { dir.toURI()
+				.toURL() }, contextLoader));
+		Future<ClassLoader> workerLoader = ParallelBundleLoader.executor().submit(
+				new Callable<ClassLoader>() {
+					public ClassLoader call() {
+						return Thread.currentThread().getContextClassLoader();
+					}
+				});
+		assertNull(workerLoader.get());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void noThreads() {
+		ParallelBundleLoader.enable(0);
+	}
+
+	/**
+	 * Load through a new ClassLoader to not get the combined resources of a previous round.
+	 */
+	private ResourceBundle load() throws IOException {
+		Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { dir.toURI()
+				.toURL() }, contextLoader));
+		ResourceBundle.clearCache();
+		return ResourceBundle.getBundle("ch.dueni.util.OrderedResource");
+	}
+
+	private void write(String name, String content) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(new File(dir, name)), "UTF-8");
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+	}
+
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.Test;
+
+public class PropertiesIndexTest {
+
+	@Test
+	public void indexPerClassLoader() {
+		ClassLoader cl = getClass().getClassLoader();
+		assertSame(PropertiesIndex.forClassLoader(cl), PropertiesIndex.forClassLoader(cl));
+	}
+
+	@Test
+	public void directoryScannedOnce() throws IOException {
+		File dir = createTempDir();
+		touch(new File(dir, "resources.properties"));
+		touch(new File(dir, "more-resources_de.properties"));
+		touch(new File(dir, "readme.txt"));
+
+		PropertiesIndex index = PropertiesIndex.forClassLoader(new ClassLoader() {
+		});
+		List<String> names = index.directoryEntries(dir);
+		assertEquals(new HashSet<String>(Arrays.asList("resources.properties",
+				"more-resources_de.properties")), new HashSet<String>(names));
+
+		touch(new File(dir, "late-resources.properties"));
+		assertSame(names, index.directoryEntries(dir));
+		assertEquals(2, index.directoryEntries(dir).size());
+	}
+
+	@Test
+	public void jarScannedOnce() throws IOException {
+		File jar = File.createTempFile("index", ".jar");
+		jar.deleteOnExit();
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			out.putNextEntry(new ZipEntry("resources.properties"));
+			out.putNextEntry(new ZipEntry("ch/dueni/more-resources.properties"));
+			out.putNextEntry(new ZipEntry("ch/dueni/Some.class"));
+		} finally {
+			out.close();
+		}
+
+		PropertiesIndex index = PropertiesIndex.forClassLoader(new ClassLoader() {
+		});
+		List<String> names = index.jarEntries(jar.getPath());
+		assertEquals(Arrays.asList("resources.properties", "ch/dueni/more-resources.properties"),
+				names);
+		assertTrue(jar.delete());
+		assertSame(names, index.jarEntries(jar.getPath()));
+	}
+
+	@Test
+	public void baseNamesKept() {
+		PropertiesIndex index = PropertiesIndex.forClassLoader(new ClassLoader() {
+		});
+		assertNull(index.getBaseNames("ch/dueni/resources"));
+		index.putBaseNames("ch/dueni/resources", new ArrayList<String>(Arrays.asList(
+				"ch/dueni/resources", "ch/dueni/more-resources")));
+		assertEquals(Arrays.asList("ch/dueni/resources", "ch/dueni/more-resources"), index
+				.getBaseNames("ch/dueni/resources"));
+		assertNull(index.getBaseNames("resources"));
+	}
+
+	@Test
+	public void combinedShared() {
+		PropertiesIndex index = PropertiesIndex.forClassLoader(new ClassLoader() {
+		});
+		ResourceTable de = new ResourceTable(Collections.<String, Object> singletonMap("res1",
+				"res1(de)"));
+		assertNull(index.getCombined("resources", Locale.GERMAN));
+		assertSame(de, index.putCombined("resources", Locale.GERMAN, de));
+		assertSame(de, index.putCombined("resources", Locale.GERMAN, new ResourceTable(
+				new HashMap<String, Object>())));
+		assertSame(de, index.getCombined("resources", Locale.GERMAN));
+		assertNull(index.getCombined("resources", Locale.ENGLISH));
+	}
+
+	@Test
+	public void invalidate() throws IOException {
+		File dir = createTempDir();
+		touch(new File(dir, "resources.properties"));
+		PropertiesIndex index = PropertiesIndex.forClassLoader(new ClassLoader() {
+		});
+		List<String> names = index.directoryEntries(dir);
+		index.putBaseNames("resources", new ArrayList<String>(Arrays.asList("resources")));
+		ResourceTable de = new ResourceTable(new HashMap<String, Object>());
+		index.putCombined("resources", Locale.GERMAN, de);
+
+		index.invalidate(dir, Collections.singleton("resources"));
+		assertTrue(de.isStale());
+		assertNull(index.getCombined("resources", Locale.GERMAN));
+		assertNull(index.getBaseNames("resources"));
+		assertNotSame(names, index.directoryEntries(dir));
+	}
+
+	@Test
+	public void combinedSharedBetweenBundles() {
+		Locale.setDefault(Locale.GERMAN);
+		ResourceBundle bundle = ResourceBundle.getBundle("ch.dueni.util.CombinedResource");
+		assertEquals("res3more(de)", bundle.getObject("res3"));
+		PropertiesIndex index = PropertiesIndex.forClassLoader(Thread.currentThread()
+				.getContextClassLoader());
+		Map<String, Object> combined = index.getCombined("resources", Locale.GERMAN);
+		assertEquals("res3more(de)", combined.get("res3"));
+		ResourceBundle.clearCache();
+		bundle = ResourceBundle.getBundle("ch.dueni.util.CombinedResource");
+		assertEquals("res3more(de)", bundle.getObject("res3"));
+		assertSame(combined, index.getCombined("resources", Locale.GERMAN));
+	}
+
+	@Test
+	public void failedScanNotCached() {
+		Locale.setDefault(Locale.GERMAN);
+		final AtomicBoolean failing = new AtomicBoolean(true);
+		ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+		ClassLoader loader = new ClassLoader(contextLoader) {
+			@Override
+			public Enumeration<URL> getResources(String name) throws IOException {
+				if (failing.get()) {
+					throw new IOException("scan failed: " + name);
+				}
+				return super.getResources(name);
+			}
+		};
+		Thread.currentThread().setContextClassLoader(loader);
+		try {
+			ResourceBundle bundle = ResourceBundle.getBundle("ch.dueni.util.CombinedResource",
+					Locale.GERMAN, loader);
+			assertFalse(bundle.containsKey("res3"));
+			PropertiesIndex index = PropertiesIndex.forClassLoader(loader);
+			assertNull(index.getBaseNames("resources"));
+			assertNull(index.getCombined("resources", Locale.GERMAN));
+
+			failing.set(false);
+			ResourceBundle.clearCache(loader);
+			bundle = ResourceBundle.getBundle("ch.dueni.util.CombinedResource", Locale.GERMAN, loader);
+			assertEquals("res3more(de)", bundle.getObject("res3"));
+			assertNotNull(index.getBaseNames("resources"));
+		} finally {
+			Thread.currentThread().setContextClassLoader(contextLoader);
+			ResourceBundle.clearCache(loader);
+		}
+	}
+
+		// === private methods ===
+
+	private File createTempDir() throws IOException {
+		File dir = File.createTempFile("index", "");
+		assertTrue(dir.delete());
+		assertTrue(dir.mkdir());
+		dir.deleteOnExit();
+		return dir;
+	}
+
+	private void touch(File file) throws IOException {
+		new FileOutputStream(file).close();
+		file.deleteOnExit();
+	}
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PropertiesWatcherTest {
+
+	private static final long TIMEOUT = 20000;
+
+	private File dir;
+
+	private ClassLoader contextLoader;
+
+	@Before
+	public void beforeTest() throws IOException {
+		dir = File.createTempFile("watched", "");
+		assertTrue(dir.delete());
+		assertTrue(dir.mkdir());
+		contextLoader = Thread.currentThread().getContextClassLoader();
+		Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { dir.toURI()
+				.toURL() }, contextLoader));
+		Locale.setDefault(Locale.ROOT);
+		ResourceBundle.clearCache();
+		PropertiesWatcher.enable();
+	}
+
+	@After
+	public void afterTest() {
+		PropertiesWatcher.disable();
+		Thread.currentThread().setContextClassLoader(contextLoader);
+		ResourceBundle.clearCache();
+		for (File file : dir.listFiles()) {
+			file.delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void watcherKeepsNoContextLoader() {
+		boolean found = false;
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if ("PropertiesWatcher".equals(thread.getName())) {
+				assertNull(thread.getContextClassLoader());
+				found = true;
+			}
+		}
+		assertTrue(found);
+	}
+
+	@Test
+	public void reloadChangedFile() throws Exception {
+		write("watched.properties", "greeting=hello\n");
+		ResourceBundle bundle = ResourceBundle.getBundle("ch.dueni.util.WatchedResource");
+		assertTrue(PropertiesWatcher.isEnabled());
+		assertEquals("hello", bundle.getString("greeting"));
+
+		write("watched.properties", "greeting=hello again\n");
+		assertEquals("hello again", awaitValue(bundle, "greeting", "hello again"));
+	}
+
+	@Test
+	public void reloadAddedFile() throws Exception {
+		write("watched.properties", "greeting=hello\n");
+		ResourceBundle bundle = ResourceBundle.getBundle("ch.dueni.util.WatchedResource");
+		assertFalse(bundle.containsKey("farewell"));
+
+		write("more-watched.properties", "farewell=bye\n");
+		assertEquals("bye", awaitValue(bundle, "farewell", "bye"));
+		assertEquals("hello", bundle.getString("greeting"));
+	}
+
+	// === private methods ===
+
+	private String awaitValue(ResourceBundle bundle, String key, String expected)
+			throws InterruptedException {
+		long end = System.currentTimeMillis() + TIMEOUT;
+		Object value = null;
+		while (System.currentTimeMillis() < end) {
+			value = bundle.containsKey(key) ? bundle.getString(key) : null;
+			if (expected.equals(value)) {
+				break;
+			}
+			Thread.sleep(50);
+		}
+		return (String)value;
+	}
+
+	private void write(String name, String content) throws IOException {
+		Writer out = new OutputStreamWriter(new FileOutputStream(new File(dir, name)), "UTF-8");
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ResourceTableTest {
+
+	@Test
+	public void lookup() {
+		Map<String, Object> resources = new HashMap<String, Object>();
+		resources.put("res2", "res2(de)");
+		resources.put("more1", "more1(de)");
+		resources.put("res1", "res1(de)");
+		ResourceTable table = new ResourceTable(resources);
+		assertEquals(3, table.size());
+		assertEquals("res1(de)", table.get("res1"));
+		assertEquals("more1(de)", table.get("more1"));
+		assertNull(table.get("res3"));
+		assertNull(table.get(Integer.valueOf(1)));
+		assertTrue(table.containsKey("res2"));
+		assertFalse(table.containsKey("res"));
+		assertEquals(resources, table);
+		assertEquals(Arrays.asList("more1", "res1", "res2"), new ArrayList<String>(table.keySet()));
+	}
+
+	@Test
+	public void valuesSharedKeysInterned() {
+		String value = new String("value");
+		Map<String, Object> resources = new HashMap<String, Object>();
+		resources.put(new String("a.key"), value);
+		ResourceTable table = new ResourceTable(resources);
+		assertSame(value, table.get("a.key"));
+		assertSame("a.key", table.keySet().iterator().next());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void readOnly() {
+		new ResourceTable(new HashMap<String, Object>()).put("key", "value");
+	}
+
+	@Test
+	public void empty() {
+		ResourceTable table = new ResourceTable(new HashMap<String, Object>());
+		assertTrue(table.isEmpty());
+		assertNull(table.get("key"));
+		assertFalse(table.entrySet().iterator().hasNext());
+	}
+
+}
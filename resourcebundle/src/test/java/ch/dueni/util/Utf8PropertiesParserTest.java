@@ -0,0 +1,91 @@
+/**
+ * Copyright 2026 by dueni.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.dueni.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class Utf8PropertiesParserTest {
+
+	@Test
+	public void sameAsProperties() throws IOException {
+		assertSameAsProperties("a=b\nc = d\ne:f\ng h\n  i\t=\tj  \n");
+		assertSameAsProperties("# comment\n! other comment\n\n   \nkey=value\n#last");
+		assertSameAsProperties("a=b\r\nc=d\re=f");
+		assertSameAsProperties("key = = value\nkey2 : : value\nkey3  =:value");
+		assertSameAsProperties("multi=first \\\n   second \\\r\n\tthird\nnext=1");
+		assertSameAsProperties("multi\\\n  key=value\nsep \\\n  = value");
+		assertSameAsProperties("esc=\\t\\n\\r\\f\\\\\\=\\:\\#\\x\nesc\\ key=1\n\\#notcomment=2");
+		assertSameAsProperties("even=backslashes\\\\\nnext=line");
+		assertSameAsProperties("uni=\\u00e4\\u00F6\\u20AC\nk\\u00fcy=v");
+		assertSameAsProperties("emptyvalue=\nemptykey\n=onlyvalue\n");
+		assertSameAsProperties("# comment \\\nnot.a.continuation=1");
+		assertSameAsProperties("dup=1\ndup=2");
+		assertSameAsProperties("eof=value\\");
+		assertSameAsProperties("umlaut=\u00E4\u00F6\u00FC \u20AC \uD83D\uDE00\n\u00E4key=\u4E2D\u6587");
+	}
+
+	@Test
+	public void byteOrderMarkSkipped() throws IOException {
+		Map<String, Object> parsed = Utf8PropertiesParser.parse(new ByteArrayInputStream(
+				"\uFEFFkey=value".getBytes("UTF-8")));
+		assertEquals("value", parsed.get("key"));
+	}
+
+	@Test
+	public void malformedUtf8Replaced() throws IOException {
+		byte[] bytes = { 'k', '=', (byte)0xC3, 'x', (byte)0xFF, (byte)0xE2, (byte)0x82 };
+		Map<String, Object> parsed = Utf8PropertiesParser.parse(new ByteArrayInputStream(bytes));
+		assertEquals("\uFFFDx\uFFFD\uFFFD", parsed.get("k"));
+	}
+
+	@Test
+	public void largeInput() throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			content.append("key.").append(i).append(" = value \u00E4 ").append(i).append('\n');
+		}
+		assertSameAsProperties(content.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void malformedUnicodeEscape() throws IOException {
+		Utf8PropertiesParser.parse(new ByteArrayInputStream("key=\\u00g1".getBytes("UTF-8")));
+	}
+
+	// === private methods ===
+
+	private void assertSameAsProperties(String content) throws IOException {
+		byte[] bytes = content.getBytes("UTF-8");
+		Properties properties = new Properties();
+		properties.load(new InputStreamReader(new ByteArrayInputStream(bytes), "UTF-8"));
+		Map<Object, Object> expected = new HashMap<Object, Object>(properties);
+		InputStream in = new ByteArrayInputStream(bytes);
+		assertEquals(content, expected, Utf8PropertiesParser.parse(in));
+	}
+
+}
@@ -0,0 +1,9 @@
+package ch.dueni.util;
+
+public class WatchedResource extends MultiplePropertiesResourceBundle {
+
+	public WatchedResource() {
+		super("watched");
+	}
+
+}